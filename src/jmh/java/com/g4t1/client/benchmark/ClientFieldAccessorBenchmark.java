@@ -0,0 +1,97 @@
+package com.g4t1.client.benchmark;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StringUtils;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.service.impl.ClientFieldAccessor;
+
+// compares the precompiled accessors with the per-call reflection they replaced
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientFieldAccessorBenchmark {
+
+    private Client createSource;
+    private Client updateSource;
+    private Client target;
+
+    @Setup
+    public void arrangeClients() {
+        createSource = new Client(null, "Hop", "Pod", LocalDate.of(1990, 1, 1), "Non-Binary",
+                "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden", "Singapore",
+                "Singapore", "Singapore", "317109", false, null);
+        updateSource = new Client(null, null, "Scotch", null, "   ", "", null,
+                "101 kinder grounds", "Zurich", "Zurich", "Switzerland", "8111013", true, null);
+        target = new Client("target-id-123", "Hop", "Pod", LocalDate.of(1990, 1, 1), "Non-Binary",
+                "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden", "Singapore",
+                "Singapore", "Singapore", "317109", false, null);
+    }
+
+    @Benchmark
+    public boolean validateAccessor() {
+        return ClientFieldAccessor.validate(createSource, true);
+    }
+
+    @Benchmark
+    public boolean validateReflection() throws IllegalAccessException {
+        return reflectiveValidate(createSource, true);
+    }
+
+    @Benchmark
+    public Client mergeAccessor() {
+        ClientFieldAccessor.merge(updateSource, target);
+        return target;
+    }
+
+    @Benchmark
+    public Client mergeReflection() throws IllegalAccessException {
+        reflectiveMerge(updateSource, target);
+        return target;
+    }
+
+    // the reflection based implementation previously inlined in ClientServiceImpl
+    static boolean reflectiveValidate(Client source, boolean create) throws IllegalAccessException {
+        for (Field field : Client.class.getDeclaredFields()) {
+            field.setAccessible(true);
+            Object fieldValue = field.get(source);
+            String fieldName = field.getName();
+            if (fieldName.equals("id") && fieldValue != null) {
+                return false;
+            }
+            if (create && !fieldName.equals("id") && fieldValue == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void reflectiveMerge(Client source, Client target) throws IllegalAccessException {
+        for (Field field : Client.class.getDeclaredFields()) {
+            field.setAccessible(true);
+            String fieldName = field.getName();
+            if ("id".equals(fieldName))
+                continue;
+            Object value = field.get(source);
+            if (value == null)
+                continue;
+            if (value instanceof String && !StringUtils.hasText((String) value))
+                continue;
+            field.set(target, value);
+        }
+    }
+}
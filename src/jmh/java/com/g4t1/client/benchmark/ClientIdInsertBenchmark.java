@@ -0,0 +1,83 @@
+package com.g4t1.client.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.g4t1.client.entity.ClientIdJavaType;
+import com.g4t1.client.service.ClientIdGenerator;
+import com.g4t1.client.service.impl.RandomClientIdGenerator;
+import com.g4t1.client.service.impl.TimeOrderedClientIdGenerator;
+
+// batched primary key inserts into a growing embedded table, random vs time ordered ids
+// stored as CHAR(36) or BINARY(16). H2 stands in for InnoDB, both cluster rows by primary key
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientIdInsertBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ "random", "uuidv7" })
+    public String generator;
+
+    @Param({ "CHAR", "BINARY" })
+    public String storage;
+
+    private ClientIdGenerator ids;
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void arrangeTable() throws SQLException {
+        ids = generator.equals("random") ? new RandomClientIdGenerator()
+                : new TimeOrderedClientIdGenerator();
+        connection = DriverManager.getConnection("jdbc:h2:mem:ids;MODE=MySQL");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE clients (client_id "
+                    + (storage.equals("BINARY") ? "BINARY(16)" : "CHAR(36)")
+                    + " PRIMARY KEY, first_name VARCHAR(255))");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO clients VALUES (?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void dropTable() throws SQLException {
+        connection.rollback();
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE clients");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String id = ids.nextId();
+            insert.setObject(1, storage.equals("BINARY") ? ClientIdJavaType.toBytes(id) : id);
+            insert.setString(2, "Hop");
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+}
@@ -0,0 +1,58 @@
+package com.g4t1.client.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.g4t1.client.entity.Client;
+
+// request and response bodies, with a mapper configured like the one spring boot builds
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Client client;
+    private byte[] body;
+
+    @Setup
+    public void arrangeMapper() throws JsonProcessingException {
+        var mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = mapper.writerFor(Client.class);
+        reader = mapper.readerFor(Client.class);
+        client = new Client("0192b1c4-7a3e-7c00-8a1b-2c3d4e5f6a7b", "Hop", "Pod",
+                LocalDate.of(1990, 1, 1), "Non-Binary", "hippityhoppity@hoparound.com", "0908 1965",
+                "71 hopping garden", "Singapore", "Singapore", "Singapore", "317109", false, 3L);
+        body = writer.writeValueAsBytes(client);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(client);
+    }
+
+    @Benchmark
+    public Client deserialize() throws java.io.IOException {
+        return reader.readValue(body);
+    }
+}
@@ -0,0 +1,104 @@
+package com.g4t1.client.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SyncTaskExecutor;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.service.impl.ClientMatchIndex;
+import com.g4t1.client.service.impl.ClientMatchKeys;
+import com.g4t1.client.service.impl.ClientMetrics;
+
+// match lookups against an index of synthetic clients. names are drawn from a small syllable
+// set so that common names collide the way real ones do and the name keys get long postings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ClientMatchBenchmark {
+    private static final String[] SYLLABLES = { "an", "bel", "chen", "da", "el", "fa", "go", "han",
+            "is", "jo", "ka", "li", "mar", "na", "ol", "pe", "ri", "sa", "tan", "vi", "wei", "yu" };
+    private static final int PROBES = 1024;
+
+    @Param({ "100000", "1000000" })
+    public int clients;
+
+    private ClientMatchIndex index;
+    private ClientMatchKeys[] exactEmail;
+    private ClientMatchKeys[] misspeltName;
+    private Client[] newClients;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void arrangeIndex() {
+        index = new ClientMatchIndex(null, null, JsonMapper.builder().findAndAddModules().build(),
+                new SyncTaskExecutor(), new ClientMetrics(new SimpleMeterRegistry()), Duration.ofSeconds(1), 1000,
+                0.3, 0.6, true);
+        Random random = new Random(42);
+        exactEmail = new ClientMatchKeys[PROBES];
+        misspeltName = new ClientMatchKeys[PROBES];
+        newClients = new Client[PROBES];
+        for (int i = 0; i < clients; i++) {
+            Client client = newClient(random, i);
+            index.putAfterCommit(List.of(client));
+            if (i % (clients / PROBES) == 0 && i / (clients / PROBES) < PROBES) {
+                int probe = i / (clients / PROBES);
+                exactEmail[probe] = ClientMatchKeys.of(null, null, client.getEmailAddress(), null, null);
+                misspeltName[probe] = ClientMatchKeys.of(client.getFirstName() + "e", client.getLastName(),
+                        null, null, client.getDateOfBirth());
+            }
+        }
+        for (int i = 0; i < PROBES; i++) {
+            newClients[i] = newClient(random, clients + i);
+            newClients[i].setId(null);
+        }
+    }
+
+    private static Client newClient(Random random, int i) {
+        String first = name(random);
+        String last = name(random);
+        return new Client("c" + i, first, last, LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000)),
+                "Female", first.toLowerCase() + "." + last.toLowerCase() + i + "@example.com",
+                String.valueOf(80000000 + random.nextInt(19999999)), "71 hopping garden", "Singapore",
+                "Singapore", "Singapore", "317109", false, 0L);
+    }
+
+    private static String name(Random random) {
+        String name = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)];
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    @Benchmark
+    public List<ClientMatchIndex.Candidate> matchExactEmail() {
+        return index.match(exactEmail[next++ & (PROBES - 1)], 10);
+    }
+
+    @Benchmark
+    public List<ClientMatchIndex.Candidate> matchMisspeltName() {
+        return index.match(misspeltName[next++ & (PROBES - 1)], 10);
+    }
+
+    // the check createClient runs, with the index not marked ready it would return straight away
+    @Benchmark
+    public List<ClientMatchIndex.Candidate> duplicatesOfNewClient() {
+        return index.match(ClientMatchKeys.of(newClients[next++ & (PROBES - 1)]), 10);
+    }
+}
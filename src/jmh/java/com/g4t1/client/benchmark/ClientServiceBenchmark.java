@@ -0,0 +1,177 @@
+package com.g4t1.client.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import com.g4t1.client.config.CacheConfig;
+import com.g4t1.client.config.SecondLevelCacheConfig;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.dto.ClientSearchCriteria;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.repository.ClientBatchRepository;
+import com.g4t1.client.repository.ClientIdCodec;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.ClientService;
+import com.g4t1.client.service.impl.ClientCache;
+import com.g4t1.client.service.impl.ClientDatabaseHealthIndicator;
+import com.g4t1.client.service.impl.ClientMatchIndex;
+import com.g4t1.client.service.impl.ClientMetrics;
+import com.g4t1.client.service.impl.ClientOutbox;
+import com.g4t1.client.service.impl.ClientReadRouting;
+import com.g4t1.client.service.impl.ClientSearchIndex;
+import com.g4t1.client.service.impl.ClientServiceImpl;
+import com.g4t1.client.service.impl.ClientUpdateLog;
+import com.g4t1.client.service.impl.TimeOrderedClientIdGenerator;
+
+// whole service calls, transaction and hibernate included, against an in-memory H2 in MySQL
+// mode. absolute numbers flatter MySQL, the point is catching regressions between commits and
+// comparing the default settings with the perf profile (application-perf.properties)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// three forks of ten iterations, enough for the error columns of the two profiles to come apart
+// on the calls where they differ
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class ClientServiceBenchmark {
+    private static final int SEEDED_CLIENTS = 1000;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Client.class)
+    @EnableJpaRepositories(basePackageClasses = ClientRepository.class)
+    @Import({ CacheConfig.class, SecondLevelCacheConfig.class, ClientServiceImpl.class,
+            ClientBatchRepository.class, ClientCache.class, ClientIdCodec.class,
+            TimeOrderedClientIdGenerator.class, ClientMetrics.class, ClientOutbox.class,
+            ClientReadRouting.class, ClientDatabaseHealthIndicator.class, ClientMatchIndex.class,
+            ClientSearchIndex.class, ClientUpdateLog.class })
+    static class ServiceContext {
+    }
+
+    @Param({ "default", "perf" })
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private ClientService service;
+    private ClientRepository repository;
+    private ClientCache cache;
+    private List<String> ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(ServiceContext.class)
+                .web(WebApplicationType.NONE)
+                // command line arguments so they win over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa", "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        // imported beans keep their class names, so the readiness group's
+                        // clientDatabase contributor is registered under another name here
+                        "--management.endpoint.health.validate-group-membership=false",
+                        "--logging.level.root=warn", "--spring.profiles.active=" + profile);
+        service = context.getBean(ClientService.class);
+        repository = context.getBean(ClientRepository.class);
+        cache = context.getBean(ClientCache.class);
+
+        List<Client> seed = new ArrayList<>(SEEDED_CLIENTS);
+        for (int i = 0; i < SEEDED_CLIENTS; i++) {
+            seed.add(newClient());
+        }
+        ids = service.createClients(seed).stream().map(result -> result.getId()).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    private String nextId() {
+        next = (next + 1) % ids.size();
+        return ids.get(next);
+    }
+
+    private static Client newClient() {
+        return new Client(null, "Hop", "Pod", LocalDate.of(1990, 1, 1), "Non-Binary",
+                "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden", "Singapore",
+                "Singapore", "Singapore", "317109", false, null);
+    }
+
+    @Benchmark
+    public Client getClientCached() {
+        return service.getClient(ids.get(0));
+    }
+
+    @Benchmark
+    public Client getClientUncached() {
+        String id = nextId();
+        cache.evict(id);
+        return service.getClient(id);
+    }
+
+    // deletes a client before every call of the benchmark that asks for it, outside the timing.
+    // the create and delete take milliseconds and would drown the read that follows them
+    @State(Scope.Thread)
+    public static class DeletedClient {
+        @Setup(Level.Invocation)
+        public void delete(ClientServiceBenchmark benchmark) {
+            benchmark.service.deleteClient(benchmark.service.createClient(newClient()).getId());
+        }
+    }
+
+    // an uncached read right after another client was deleted, which must not have sent it to
+    // the database by emptying the second-level cache region
+    @Benchmark
+    public Client getClientUncachedAfterDelete(DeletedClient deleted) {
+        return getClientUncached();
+    }
+
+    @Benchmark
+    public Client updateClient() {
+        Client source = new Client();
+        source.setCity(next % 2 == 0 ? "Zurich" : "Singapore");
+        return service.updateClient(nextId(), source);
+    }
+
+    @Benchmark
+    public Client createClient() {
+        return service.createClient(newClient());
+    }
+
+    @Benchmark
+    public ClientPage searchFirstPage() {
+        ClientSearchCriteria criteria = new ClientSearchCriteria();
+        criteria.setCountry("Singapore");
+        return service.searchClients(criteria, null, 20);
+    }
+
+    // no client has this last name, so the time is the query's own overhead, not row mapping
+    @Benchmark
+    public List<Client> findByLastName() {
+        return repository.findByLastName("Nobody");
+    }
+}
@@ -0,0 +1,69 @@
+package com.g4t1.client.benchmark;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.service.impl.ClientFieldAccessor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+// the two checks every create runs: the service's field presence check and bean validation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Client validSource;
+    private Client invalidSource;
+
+    @Setup(Level.Trial)
+    public void arrangeValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validSource = new Client(null, "Hop", "Pod", LocalDate.of(1990, 1, 1), "Non-Binary",
+                "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden", "Singapore",
+                "Singapore", "Singapore", "317109", false, null);
+        invalidSource = new Client(null, "H", "P", LocalDate.of(2990, 1, 1), "Non-Binary",
+                "not-an-email", "0908 1965", "71", "S", "S", "S", "1", false, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean validateSourceData() {
+        return ClientFieldAccessor.validate(validSource, true);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Client>> beanValidationValid() {
+        return validator.validate(validSource);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Client>> beanValidationInvalid() {
+        return validator.validate(invalidSource);
+    }
+}
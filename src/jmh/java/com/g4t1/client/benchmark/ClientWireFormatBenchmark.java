@@ -0,0 +1,115 @@
+package com.g4t1.client.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.entity.Client;
+
+// one client and a page of 100 in each encoding the api negotiates, with mappers configured the
+// way WireFormatConfig configures them. the payload sizes are printed once per fork
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientWireFormatBenchmark {
+
+    @Param({ "json", "smile", "cbor" })
+    public String format;
+
+    private ObjectWriter clientWriter;
+    private ObjectReader clientReader;
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+    private Client client;
+    private ClientPage page;
+    private byte[] clientBody;
+    private byte[] pageBody;
+
+    @Setup
+    public void arrangeMapper() throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        clientWriter = mapper.writerFor(Client.class);
+        clientReader = mapper.readerFor(Client.class);
+        pageWriter = mapper.writerFor(ClientPage.class);
+        // ClientPage is immutable without a creator, callers read pages into a plain class like this
+        pageReader = mapper.readerFor(PageBody.class);
+
+        client = newClient(0);
+        List<Client> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(newClient(i));
+        }
+        page = new ClientPage(items, items.get(99).getId());
+        clientBody = clientWriter.writeValueAsBytes(client);
+        pageBody = pageWriter.writeValueAsBytes(page);
+        System.out.printf("%n%s payload bytes: client %d, page of 100 %d%n", format, clientBody.length,
+                pageBody.length);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+    }
+
+    private static Client newClient(int i) {
+        return new Client(String.format("0192b1c4-7a3e-7c00-8a1b-2c3d4e5f%04x", i), "Hop", "Pod",
+                LocalDate.of(1990, 1, 1).plusDays(i), "Non-Binary", "hippityhoppity" + i + "@hoparound.com",
+                "0908 1965", "71 hopping garden", "Singapore", "Singapore", "Singapore", "317109", false, 3L);
+    }
+
+    // the reading side of a ClientPage
+    public static class PageBody {
+        public List<Client> items;
+        public String nextCursor;
+    }
+
+    @Benchmark
+    public byte[] serializeClient() throws IOException {
+        return clientWriter.writeValueAsBytes(client);
+    }
+
+    @Benchmark
+    public Client deserializeClient() throws IOException {
+        return clientReader.readValue(clientBody);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageBody deserializePage() throws IOException {
+        return pageReader.readValue(pageBody);
+    }
+}
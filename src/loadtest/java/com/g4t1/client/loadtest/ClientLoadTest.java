@@ -0,0 +1,281 @@
+package com.g4t1.client.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.ClientApplication;
+import com.g4t1.client.loadtest.LoadTestOptions.Operation;
+
+// boots the whole application on an in-memory H2 in MySQL mode and drives the REST api with a
+// weighted mix of operations, then prints throughput and latency percentiles per operation.
+// ./mvnw -Ploadtest verify -Dloadtest.args="--concurrency=64 --mix=get:80,update:20"
+// admission control is off by default, pass --client.admission.enabled=true to measure its
+// rejections as well.
+// virtual thread pinning over the measured interval is reported after the latencies, run with
+// --spring.threads.virtual.enabled=true for it to cover request handling
+public class ClientLoadTest {
+    private static final String[] APPLICATION_ARGS = {
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--logging.level.root=warn" };
+    // distinct email and phone per client, so the match index sees realistic postings
+    private static final String CLIENT_JSON = """
+            {"firstName":"Hop","lastName":"Pod","dateOfBirth":"1990-01-01","gender":"Non-Binary",\
+            "emailAddress":"hop%1$d@hoparound.com","phoneNumber":"%2$08d",\
+            "address":"71 hopping garden","city":"Singapore","state":"Singapore",\
+            "country":"Singapore","postalCode":"317109","validated":false}""";
+    // latencies are recorded in microseconds, up to a minute
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestOptions options;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Operation[] weightedOperations;
+    private final AtomicReferenceArray<String> ids;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicLong nextClient = new AtomicLong();
+    private final PinningRecorder pinning;
+    private URI baseUri;
+
+    ClientLoadTest(LoadTestOptions options, PinningRecorder pinning) {
+        this.options = options;
+        this.pinning = pinning;
+        this.http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        List<Operation> weighted = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            recorders.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        this.weightedOperations = weighted.toArray(Operation[]::new);
+        // room for the seed plus whatever the run creates, old slots are overwritten once full
+        this.ids = new AtomicReferenceArray<>(Math.max(options.seed() * 2, 1024));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> applicationArgs = new ArrayList<>(List.of(APPLICATION_ARGS));
+        applicationArgs.addAll(options.applicationArgs());
+
+        try (PinningRecorder pinning = new PinningRecorder();
+                ConfigurableApplicationContext context = SpringApplication.run(ClientApplication.class,
+                        applicationArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ClientLoadTest loadTest = new ClientLoadTest(options, pinning);
+            loadTest.baseUri = URI.create("http://localhost:" + port);
+            loadTest.run();
+        }
+    }
+
+    void run() throws Exception {
+        seed();
+
+        System.out.printf("warming up for %ss with %d workers%n", options.warmup().toSeconds(),
+                options.concurrency());
+        drive(options.warmup());
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(counter -> counter.set(0));
+        pinning.reset();
+
+        System.out.printf("measuring for %ss%n", options.duration().toSeconds());
+        long start = System.nanoTime();
+        drive(options.duration());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        report(seconds);
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        int batchSize = 1000;
+        for (int from = 0; from < options.seed(); from += batchSize) {
+            int size = Math.min(batchSize, options.seed() - from);
+            List<String> clients = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                clients.add(newClientJson());
+            }
+            String body = "[" + String.join(",", clients) + "]";
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/clients/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+            for (JsonNode result : mapper.readTree(response.body())) {
+                remember(result.get("id").asText());
+            }
+        }
+    }
+
+    // closed loop when no rate is set, otherwise each worker paces itself to its share of the rate
+    // and latency is measured from the intended start so queueing delay is not hidden
+    private void drive(Duration length) throws InterruptedException {
+        long deadline = System.nanoTime() + length.toNanos();
+        long intervalNanos = options.rate() > 0
+                ? TimeUnit.SECONDS.toNanos(1) * options.concurrency() / options.rate()
+                : 0;
+
+        List<Thread> workers = new ArrayList<>(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.add(Thread.ofVirtual().name("loadtest-" + i).start(() -> {
+                long intendedStart = System.nanoTime();
+                while (intendedStart < deadline) {
+                    if (intervalNanos > 0) {
+                        long wait = intendedStart - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    } else {
+                        intendedStart = System.nanoTime();
+                    }
+                    Operation operation = weightedOperations[ThreadLocalRandom.current()
+                            .nextInt(weightedOperations.length)];
+                    boolean ok = execute(operation);
+                    long latencyMicros = (System.nanoTime() - intendedStart) / 1000;
+                    recorders.get(operation).recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+                    if (!ok) {
+                        errors.get(operation).incrementAndGet();
+                    }
+                    intendedStart += intervalNanos;
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private boolean execute(Operation operation) {
+        try {
+            return switch (operation) {
+                case CREATE -> {
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/clients"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(newClientJson())));
+                    if (response.statusCode() != 201) {
+                        yield false;
+                    }
+                    remember(mapper.readTree(response.body()).get("id").asText());
+                    yield true;
+                }
+                case GET -> send(HttpRequest.newBuilder(uri("/api/clients/" + pickId())).GET())
+                        .statusCode() == 200;
+                case UPDATE -> send(HttpRequest.newBuilder(uri("/api/clients/" + pickId()))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString("{\"city\":\"Zurich\"}")))
+                        .statusCode() == 200;
+                case DELETE -> {
+                    String id = takeId();
+                    yield id != null && send(HttpRequest.newBuilder(uri("/api/clients/" + id))
+                            .DELETE()).statusCode() == 204;
+                }
+                case SEARCH -> send(HttpRequest.newBuilder(uri("/api/clients?country=Singapore&limit=20"))
+                        .GET()).statusCode() == 200;
+            };
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void report(double seconds) throws IOException {
+        Files.createDirectories(options.reportDir());
+        PrintStream out = System.out;
+        out.printf("%n%-8s %10s %10s %8s %9s %9s %9s %9s %9s%n", "op", "requests", "req/s", "errors",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        long totalRequests = 0;
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            Histogram histogram = entry.getValue().getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            totalRequests += count;
+            out.printf("%-8s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), count, count / seconds,
+                    errors.get(entry.getKey()).get(), millis(histogram, 50), millis(histogram, 90),
+                    millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+
+            // full distributions for HdrHistogram's plotter
+            try (PrintStream hgrm = new PrintStream(options.reportDir()
+                    .resolve(entry.getKey().name().toLowerCase() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        out.printf("%-8s %10d %10.1f%n", "total", totalRequests, totalRequests / seconds);
+        out.printf("latency distributions written to %s%n", options.reportDir().toAbsolutePath());
+        pinning.report(out, seconds);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private String newClientJson() {
+        long n = nextClient.incrementAndGet();
+        return String.format(CLIENT_JSON, n, n % 100_000_000);
+    }
+
+    private void remember(String id) {
+        ids.set(Math.floorMod(nextSlot.getAndIncrement(), ids.length()), id);
+    }
+
+    private String pickId() {
+        int known = Math.min(nextSlot.get(), ids.length());
+        for (int attempt = 0; attempt < 8; attempt++) {
+            String id = ids.get(ThreadLocalRandom.current().nextInt(known));
+            if (id != null) {
+                return id;
+            }
+        }
+        return "missing-id";
+    }
+
+    private String takeId() {
+        int known = Math.min(nextSlot.get(), ids.length());
+        for (int attempt = 0; attempt < 8; attempt++) {
+            String id = ids.getAndSet(ThreadLocalRandom.current().nextInt(known), null);
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        return http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.g4t1.client.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// harness flags, anything it does not recognise is handed to the application as a spring argument
+record LoadTestOptions(Duration warmup, Duration duration, int concurrency, int rate, int seed,
+        Map<Operation, Integer> mix, Path reportDir, List<String> applicationArgs) {
+
+    enum Operation {
+        CREATE, GET, UPDATE, DELETE, SEARCH
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Duration warmup = Duration.ofSeconds(60);
+        Duration duration = Duration.ofSeconds(30);
+        int concurrency = 32;
+        int rate = 0;
+        int seed = 10_000;
+        String mix = "create:10,get:70,update:15,delete:5";
+        Path reportDir = Path.of("target", "loadtest");
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "warmup" -> warmup = Duration.parse("PT" + value.toUpperCase());
+                case "duration" -> duration = Duration.parse("PT" + value.toUpperCase());
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "rate" -> rate = Integer.parseInt(value);
+                case "seed" -> seed = Integer.parseInt(value);
+                case "mix" -> mix = value;
+                case "report-dir" -> reportDir = Path.of(value);
+                default -> applicationArgs.add(arg);
+            }
+        }
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        return new LoadTestOptions(warmup, duration, concurrency, rate, seed, parseMix(mix),
+                reportDir, applicationArgs);
+    }
+
+    // "create:10,get:70" -> weights per operation, operations left out are never issued
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("mix entries look like get:70, got " + entry);
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix must give at least one operation a weight");
+        }
+        return weights;
+    }
+}
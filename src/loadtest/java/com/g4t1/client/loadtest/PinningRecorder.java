@@ -0,0 +1,77 @@
+package com.g4t1.client.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+// counts jdk.VirtualThreadPinned events in this jvm: a virtual thread that parks or blocks while
+// it holds a monitor, or sits in a native frame, and so keeps its carrier from running others.
+// every pinned park is recorded, not only those over jfr's default 20ms, and attributed to the
+// first frame outside the jdk. with spring.threads.virtual.enabled=true this covers the request
+// path, the harness's own workers only ever park in the http client
+final class PinningRecorder implements AutoCloseable {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream = new RecordingStream();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Map<String, LongAdder> frames = new ConcurrentHashMap<>();
+    private volatile Instant since = Instant.MIN;
+
+    PinningRecorder() {
+        stream.enable(EVENT).withThreshold(Duration.ZERO).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+    }
+
+    // events are delivered about a second late, so the cut is made on their start time
+    void reset() {
+        since = Instant.now();
+    }
+
+    private void record(RecordedEvent event) {
+        if (event.getStartTime().isBefore(since)) {
+            return;
+        }
+        events.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        frames.computeIfAbsent(firstApplicationFrame(event), frame -> new LongAdder()).increment();
+    }
+
+    private static String firstApplicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "(no stack trace)";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "(jdk frames only)";
+    }
+
+    // stops the stream first, which waits until every event recorded so far has been counted
+    void report(PrintStream out, double seconds) {
+        stream.stop();
+        out.printf("%nvirtual thread pinning: %d events, %.1f/s, %.2f ms pinned in total%n",
+                events.sum(), events.sum() / seconds, pinnedNanos.sum() / 1e6);
+        frames.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue()
+                        .sum()).reversed())
+                .limit(10)
+                .forEach(entry -> out.printf("  %8d  %s%n", entry.getValue().sum(), entry.getKey()));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.g4t1.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import com.g4t1.client.controller.ClientAdmissionInterceptor;
+import com.g4t1.client.service.impl.ClientAdmissionControl;
+
+// admission control, off unless enabled, covers /api only, /health and the actuator probes are
+// never limited
+@Configuration
+@ConditionalOnProperty(name = "client.admission.enabled", havingValue = "true")
+public class AdmissionConfig implements WebMvcConfigurer {
+    private final ClientAdmissionControl admission;
+    private final String callerHeader;
+
+    public AdmissionConfig(ClientAdmissionControl admission,
+            @Value("${client.admission.rate.caller-header:}") String callerHeader) {
+        this.admission = admission;
+        this.callerHeader = callerHeader;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new ClientAdmissionInterceptor(admission, callerHeader))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/health");
+    }
+}
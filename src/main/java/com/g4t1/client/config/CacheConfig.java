@@ -0,0 +1,10 @@
+package com.g4t1.client.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// the caffeine cache manager and its actuator metrics are auto-configured from spring.cache.*
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
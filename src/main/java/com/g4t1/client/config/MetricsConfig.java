@@ -0,0 +1,17 @@
+package com.g4t1.client.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// http.server.requests, spring.data.repository.invocations and hikaricp.* are auto-configured,
+// this adds the aspect behind @Timed on the service layer
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
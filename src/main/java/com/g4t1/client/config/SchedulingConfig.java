@@ -0,0 +1,11 @@
+package com.g4t1.client.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// runs the outbox relay and its purge, the index followers and the write-behind flush on boot's
+// scheduler. the health check refresh keeps a thread of its own
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,50 @@
+package com.g4t1.client.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+// only active when hibernate's second-level cache is switched on, as the perf profile does. the
+// client region is created here, bounded and expiring like the spring client cache, and hibernate
+// is handed the cache manager: a config file named by hibernate.javax.cache.uri is not found by
+// caffeine once packaged in the boot jar, and a missing region would be created unbounded
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache",
+        havingValue = "true")
+public class SecondLevelCacheConfig {
+    // the region Client is annotated with
+    public static final String CLIENT_REGION = "client";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${client.cache.second-level.max-size:10000}") long maxSize,
+            @Value("${client.cache.second-level.ttl:300s}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // a manager of its own, the provider's default one is shared by every context in the jvm
+        CacheManager manager = provider.getCacheManager(
+                URI.create("client-second-level-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+        region.setMaximumSize(OptionalLong.of(maxSize));
+        region.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        manager.createCache(CLIENT_REGION, region);
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
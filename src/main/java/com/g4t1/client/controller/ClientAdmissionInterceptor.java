@@ -0,0 +1,94 @@
+package com.g4t1.client.controller;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import com.g4t1.client.service.impl.AdaptiveConcurrencyLimiter;
+import com.g4t1.client.service.impl.ClientAdmissionControl;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// admits api calls through ClientAdmissionControl, the operation being the handler method. a
+// caller over its rate gets 429 and an operation at its concurrency limit 503, both with
+// Retry-After. the concurrency slot is held while the request thread handles the call, a body
+// streamed asynchronously afterwards (event streams, import progress) no longer counts
+public class ClientAdmissionInterceptor implements AsyncHandlerInterceptor {
+    private static final String ADMITTED = ClientAdmissionInterceptor.class.getName() + ".admitted";
+
+    private record Admitted(AdaptiveConcurrencyLimiter limiter, long startedAt) {
+    }
+
+    private final ClientAdmissionControl admission;
+    private final String callerHeader;
+
+    // callerHeader names a header set by a trusted proxy, left empty callers are told apart by
+    // their remote address
+    public ClientAdmissionInterceptor(ClientAdmissionControl admission, String callerHeader) {
+        this.admission = admission;
+        this.callerHeader = callerHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!(handler instanceof HandlerMethod method)
+                || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String operation = method.getMethod().getName();
+
+        long wait = admission.tryAcquireRate(caller(request));
+        if (wait > 0) {
+            admission.rejected(operation, ClientAdmissionControl.Rejection.RATE);
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "rate limit exceeded");
+            return false;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = admission.limiter(operation);
+        if (!limiter.tryAcquire()) {
+            admission.rejected(operation, ClientAdmissionControl.Rejection.CONCURRENCY);
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "server busy");
+            return false;
+        }
+        request.setAttribute(ADMITTED, new Admitted(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED) instanceof Admitted admitted) {
+            request.removeAttribute(ADMITTED);
+            admitted.limiter().release(System.nanoTime() - admitted.startedAt());
+        }
+    }
+
+    private String caller(HttpServletRequest request) {
+        String caller = StringUtils.hasText(callerHeader) ? request.getHeader(callerHeader) : null;
+        return StringUtils.hasText(caller) ? caller : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long waitNanos, String message)
+            throws Exception {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+}
@@ -1,17 +1,34 @@
 package com.g4t1.client.controller;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import com.g4t1.client.dto.ClientBatchResult;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientBulkPatchResult;
+import com.g4t1.client.dto.ClientLookup;
+import com.g4t1.client.dto.ClientMatch;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.dto.ClientSearchCriteria;
 import com.g4t1.client.entity.Client;
 import com.g4t1.client.service.ClientService;
 import jakarta.validation.Valid;
@@ -20,29 +37,101 @@ import jakarta.validation.constraints.NotBlank;
 @RestController
 @Validated
 public class ClientController {
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final ClientService clientService;
+    private final boolean writeBehind;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService,
+            @Value("${client.update.write-behind.enabled:false}") boolean writeBehind) {
         this.clientService = clientService;
+        this.writeBehind = writeBehind;
     }
 
     @PostMapping("/api/clients")
-    public ResponseEntity<Client> create(@Valid @RequestBody Client client) {
-        Client newlyCreated = clientService.createClient(client);
+    public ResponseEntity<Client> create(@Valid @RequestBody Client client,
+            @RequestParam(defaultValue = "false") boolean allowDuplicates) {
+        Client newlyCreated = clientService.createClient(client, allowDuplicates);
         return ResponseEntity.status(HttpStatus.CREATED).body(newlyCreated);
     }
 
+    // items are validated one by one so that a bad row is reported instead of failing the batch
+    @PostMapping("/api/clients/batch")
+    public ResponseEntity<List<ClientBatchResult>> createBatch(@RequestBody List<Client> clients) {
+        List<ClientBatchResult> results = clientService.createClients(clients);
+        return ResponseEntity.status(HttpStatus.OK).body(results);
+    }
+
+    // If-Match makes the update conditional on the versions from previous ETags. with write-behind
+    // enabled, Prefer: respond-async on an unconditional update answers 202 once it is queued,
+    // the body then shows the queued fields and carries no ETag since the version is not known yet
     @PutMapping("/api/clients/{id}")
     public ResponseEntity<Client> updateClient(@PathVariable @NotBlank String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @Valid @RequestBody Client source) {
-        Client client = clientService.updateClient(id, source);
-        return ResponseEntity.status(HttpStatus.OK).body(client);
+        if (writeBehind && ifMatch == null && prefersAsync(prefer)) {
+            Client queued = clientService.queueUpdate(id, source);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).header("Preference-Applied", RESPOND_ASYNC)
+                    .body(queued);
+        }
+        Client client = clientService.updateClient(id, source, parseVersions(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(toETag(client)).body(client);
     }
 
+    // same fields on many clients, e.g. {"filter": {"validated": false}, "set": {"validated": true}}
+    @PatchMapping("/api/clients")
+    public ResponseEntity<ClientBulkPatchResult> patchClients(@RequestBody ClientBulkPatch patch) {
+        ClientBulkPatchResult result = clientService.patchClients(patch);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    // ?ids=a,b,c or repeated ids=, answered with one query for whatever is not cached
+    @GetMapping("/api/clients/batch")
+    public ResponseEntity<ClientLookup> getClients(@RequestParam List<String> ids) {
+        ClientLookup lookup = clientService.getClients(ids);
+        return ResponseEntity.status(HttpStatus.OK).body(lookup);
+    }
+
+    // a matching If-None-Match is answered 304 from the cache without loading the client, and
+    // otherwise by spring once the loaded client's ETag matches, before it is serialized
     @GetMapping("/api/clients/{id}")
-    public ResponseEntity<Client> getClient(@PathVariable @NotBlank String id) {
+    public ResponseEntity<Client> getClient(@PathVariable @NotBlank String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String cached = clientService.cachedEntityTag(id);
+            if (cached != null && matchesAny(ifNoneMatch, cached)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached).build();
+            }
+        }
         Client client = clientService.getClient(id);
-        return ResponseEntity.status(HttpStatus.OK).body(client);
+        return ResponseEntity.status(HttpStatus.OK).eTag(clientService.entityTag(client)).body(client);
+    }
+
+    // ranked by relevance, e.g. ?q=tan orchard. pass the previous page's nextCursor as after
+    @GetMapping("/api/clients/search")
+    public ResponseEntity<ClientPage> searchClientsByText(@RequestParam String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        ClientPage page = clientService.searchClientsByText(q, after, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    // existing clients resembling the body, which may leave out any field, best match first
+    @PostMapping("/api/clients/match")
+    public ResponseEntity<List<ClientMatch>> matchClients(@RequestBody Client probe,
+            @RequestParam(required = false) Integer limit) {
+        List<ClientMatch> matches = clientService.findMatches(probe, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(matches);
+    }
+
+    // keyset pagination: pass the previous page's nextCursor as after
+    @GetMapping("/api/clients")
+    public ResponseEntity<ClientPage> searchClients(@ModelAttribute ClientSearchCriteria criteria,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        ClientPage page = clientService.searchClients(criteria, after, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(page);
     }
 
     @DeleteMapping("/api/clients/{id}")
@@ -76,4 +165,53 @@ public class ClientController {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(status);
         }
     }
+
+    private static String toETag(Client client) {
+        return client.getVersion() == null ? null : client.getVersion().toString();
+    }
+
+    // If-None-Match compares weakly, "3" and W/"3" both match 3, and * matches any client
+    private static boolean matchesAny(String ifNoneMatch, String tag) {
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.tag().equals(tag));
+    }
+
+    // Prefer: respond-async, wait=5 and the like, other preferences are ignored
+    private static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split("[,;]")) {
+            if (preference.trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the versions an If-Match list accepts, each given as "3", W/"3" or 3. * or no header means
+    // any version and gives null. a tag that is no version of ours matches nothing, so a header
+    // of only such tags gives an empty set and fails on the version check like any mismatch
+    private static Set<Long> parseVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+
+        Set<Long> versions = new HashSet<>();
+        for (String element : ifMatch.split(",")) {
+            String tag = element.trim();
+            if (tag.equals("*")) {
+                return null;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            try {
+                versions.add(Long.valueOf(tag.replace("\"", "")));
+            } catch (NumberFormatException e) {
+                // not an ETag this service hands out
+            }
+        }
+        return versions;
+    }
 }
@@ -0,0 +1,26 @@
+package com.g4t1.client.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.g4t1.client.service.impl.ClientEventStream;
+
+@RestController
+public class ClientEventController {
+    private final ClientEventStream eventStream;
+
+    public ClientEventController(ClientEventStream eventStream) {
+        this.eventStream = eventStream;
+    }
+
+    // change events as server-sent events, each carrying its offset as the event id. resume with
+    // ?after=<offset>, or let the client send Last-Event-ID when it reconnects
+    @GetMapping(value = "/api/clients/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(defaultValue = "0") long after,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return eventStream.subscribe(lastEventId != null ? lastEventId : after);
+    }
+}
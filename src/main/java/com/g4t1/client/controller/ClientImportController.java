@@ -0,0 +1,56 @@
+package com.g4t1.client.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.dto.ImportJob;
+import com.g4t1.client.service.ClientImportService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotBlank;
+
+@RestController
+@Validated
+public class ClientImportController {
+    private final ClientImportService importService;
+    private final ObjectMapper objectMapper;
+
+    public ClientImportController(ClientImportService importService, ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+    }
+
+    // the body is consumed as a raw stream and a progress line is written back after every batch
+    @PostMapping(value = "/api/clients/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importClients(InputStream body, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        importService.importClients(body, job -> writeProgress(out, job));
+    }
+
+    @GetMapping("/api/clients/import/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable @NotBlank String jobId) {
+        return ResponseEntity.status(HttpStatus.OK).body(importService.getImportJob(jobId));
+    }
+
+    private void writeProgress(OutputStream out, ImportJob job) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(job));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write import progress", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.g4t1.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClientBatchResult {
+
+    public enum Status {
+        CREATED, REJECTED, FAILED
+    }
+
+    // position of the item in the submitted list
+    private final int index;
+
+    private final String id;
+
+    private final Status status;
+
+    private final String error;
+
+    public static ClientBatchResult created(int index, String id) {
+        return new ClientBatchResult(index, id, Status.CREATED, null);
+    }
+
+    public static ClientBatchResult rejected(int index, String error) {
+        return new ClientBatchResult(index, null, Status.REJECTED, error);
+    }
+
+    public static ClientBatchResult failed(int index, String error) {
+        return new ClientBatchResult(index, null, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,22 @@
+package com.g4t1.client.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// the same field values applied to either an explicit id list or every client matching a filter
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientBulkPatch {
+    private List<String> ids;
+
+    private ClientSearchCriteria filter;
+
+    // client field name to new value, id and version cannot be set
+    private Map<String, Object> set;
+}
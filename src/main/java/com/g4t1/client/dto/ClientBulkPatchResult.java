@@ -0,0 +1,14 @@
+package com.g4t1.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClientBulkPatchResult {
+    // rows changed across all chunks, ids that do not exist are not counted
+    private final long updated;
+
+    // number of UPDATE statements, each committed in its own transaction
+    private final int chunks;
+}
@@ -0,0 +1,18 @@
+package com.g4t1.client.dto;
+
+import java.util.List;
+import java.util.Map;
+import com.g4t1.client.entity.Client;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClientLookup {
+
+    // keyed by id, in the order the ids were asked for
+    private final Map<String, Client> clients;
+
+    // ids asked for that do not exist
+    private final List<String> missing;
+}
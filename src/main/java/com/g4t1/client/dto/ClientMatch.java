@@ -0,0 +1,19 @@
+package com.g4t1.client.dto;
+
+import java.util.List;
+import com.g4t1.client.entity.Client;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClientMatch {
+
+    private final Client client;
+
+    // 0 to 1, over the fields the probe supplied
+    private final double score;
+
+    // fields that agreed: emailAddress, phoneNumber, name, dateOfBirth
+    private final List<String> matchedOn;
+}
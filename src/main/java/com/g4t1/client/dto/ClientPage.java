@@ -0,0 +1,15 @@
+package com.g4t1.client.dto;
+
+import java.util.List;
+import com.g4t1.client.entity.Client;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClientPage {
+    private final List<Client> items;
+
+    // pass back as ?after= to fetch the next page, null on the last page
+    private final String nextCursor;
+}
@@ -0,0 +1,25 @@
+package com.g4t1.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// optional exact-match filters for the client listing, unset fields are ignored
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientSearchCriteria {
+    private String firstName;
+    private String lastName;
+    private String city;
+    private String state;
+    private String country;
+    private Boolean validated;
+
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && city == null && state == null
+                && country == null && validated == null;
+    }
+}
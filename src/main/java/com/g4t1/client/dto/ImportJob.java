@@ -0,0 +1,69 @@
+package com.g4t1.client.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Getter;
+
+// progress of one streaming import, only the importing thread writes to it
+@Getter
+public class ImportJob {
+    private static final int MAX_ERRORS = 20;
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Status status = Status.RUNNING;
+
+    private volatile long linesRead;
+    private volatile long created;
+    private volatile long rejected;
+    private volatile long failed;
+    private volatile long malformed;
+
+    // only the first few errors are kept so that memory does not grow with the file
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    public ImportJob(String id) {
+        this.id = id;
+        this.startedAt = Instant.now();
+    }
+
+    public void lineRead() {
+        linesRead++;
+    }
+
+    public void recordCreated(long count) {
+        created += count;
+    }
+
+    public void recordRejected(long line, String error) {
+        rejected++;
+        addError(line, error);
+    }
+
+    public void recordFailed(long line, String error) {
+        failed++;
+        addError(line, error);
+    }
+
+    public void recordMalformed(long line, String error) {
+        malformed++;
+        addError(line, error);
+    }
+
+    public void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = Instant.now();
+    }
+
+    private void addError(long line, String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + line + ": " + error);
+        }
+    }
+}
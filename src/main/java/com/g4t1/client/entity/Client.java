@@ -1,10 +1,17 @@
 package com.g4t1.client.entity;
 
 import java.time.LocalDate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JavaType;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Size;
@@ -14,7 +21,22 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "clients")
+// secondary indexes back the listing filters, each one ends in client_id so that a keyset page
+// (filter = ? AND client_id > ? ORDER BY client_id) is a range read in index order at any depth.
+// a last name alone needs its own index, client_id does not follow last_name in the pair one
+@Table(name = "clients", indexes = {
+        @Index(name = "idx_clients_last_name_first_name", columnList = "last_name, first_name, client_id"),
+        @Index(name = "idx_clients_last_name", columnList = "last_name, client_id"),
+        @Index(name = "idx_clients_first_name", columnList = "first_name, client_id"),
+        @Index(name = "idx_clients_city", columnList = "city, client_id"),
+        @Index(name = "idx_clients_state", columnList = "state, client_id"),
+        @Index(name = "idx_clients_country", columnList = "country, client_id"),
+        @Index(name = "idx_clients_validated", columnList = "validated, client_id") })
+// partial updates write only the changed columns (plus version) instead of the whole row
+@DynamicUpdate
+// kept in hibernate's second-level cache when it is enabled (perf profile). read-write keeps the
+// cached row in step with committed updates, bulk deletes and patches drop the whole region
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -22,6 +44,7 @@ import lombok.Setter;
 public class Client {
 
     @Id
+    @JavaType(ClientIdJavaType.class)
     @Column(name = "client_id", updatable = false, nullable = false)
     private String id;
 
@@ -68,7 +91,15 @@ public class Client {
     @Column(name = "postal_code", nullable = false, length = 10)
     private String postalCode;
 
+    // a wrapper like the other fields, so that an update leaving it out is not read as false.
+    // a create leaving it out stores false
     @Column(name = "validated", nullable = false)
-    private boolean validated;
+    private Boolean validated;
+
+    // bumped on every update, also served as the ETag of the client resource
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "version", nullable = false)
+    private Long version;
 
 }
@@ -0,0 +1,63 @@
+package com.g4t1.client.entity;
+
+import java.time.Instant;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// outbox row written in the same transaction as the client change it describes. the relay
+// numbers rows with a gap-free offset when it publishes them, consumers resume from that offset
+@Entity
+@Table(name = "client_outbox", indexes = {
+        @Index(name = "idx_client_outbox_published_offset", columnList = "published_offset", unique = true) })
+@Getter
+@Setter
+@NoArgsConstructor
+public class ClientEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    // stable across redeliveries, consumers can dedupe on it
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long id;
+
+    // null until published
+    @JsonProperty("offset")
+    @Column(name = "published_offset")
+    private Long publishedOffset;
+
+    @Column(name = "client_id", nullable = false, length = 36)
+    private String clientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 10)
+    private Type type;
+
+    // version of the client after the change, null for deletes
+    @Column(name = "client_version")
+    private Long version;
+
+    // json of the fields written: the whole client on create and update, the patched fields
+    // on a bulk patch, nothing on delete
+    @JsonRawValue
+    @Column(name = "payload", length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,104 @@
+package com.g4t1.client.entity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+import org.hibernate.type.descriptor.java.ImmutableMutabilityPlan;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.descriptor.jdbc.JdbcTypeIndicators;
+
+// keeps the client id a String in java and json, while the column follows
+// hibernate.type.preferred_uuid_jdbc_type: CHAR(36) text or a compact BINARY(16)
+public class ClientIdJavaType extends AbstractClassJavaType<String> {
+    private static final int UUID_BYTES = 16;
+    private static final int UUID_CHARS = 36;
+
+    public ClientIdJavaType() {
+        super(String.class, ImmutableMutabilityPlan.instance());
+    }
+
+    @Override
+    public JdbcType getRecommendedJdbcType(JdbcTypeIndicators indicators) {
+        return indicators.getJdbcType(indicators.getPreferredSqlTypeCodeForUuid());
+    }
+
+    @Override
+    public long getDefaultSqlLength(Dialect dialect, JdbcType jdbcType) {
+        return isBinary(jdbcType.getDdlTypeCode()) ? UUID_BYTES : UUID_CHARS;
+    }
+
+    @Override
+    public String toString(String value) {
+        return value;
+    }
+
+    @Override
+    public String fromString(CharSequence string) {
+        return string == null ? null : string.toString();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (String.class.isAssignableFrom(type)) {
+            return (X) value;
+        }
+        if (byte[].class.isAssignableFrom(type)) {
+            return (X) toBytes(value);
+        }
+        if (UUID.class.isAssignableFrom(type)) {
+            return (X) UUID.fromString(value);
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String id) {
+            return id;
+        }
+        if (value instanceof byte[] bytes) {
+            return fromBytes(bytes);
+        }
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        throw unknownWrap(value.getClass());
+    }
+
+    // a malformed id becomes bytes of the wrong length, which simply never matches a stored key
+    public static byte[] toBytes(String id) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return id.getBytes(StandardCharsets.UTF_8);
+        }
+        return ByteBuffer.allocate(UUID_BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes.length != UUID_BYTES) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    private static boolean isBinary(int sqlType) {
+        return sqlType == SqlTypes.BINARY || sqlType == SqlTypes.VARBINARY;
+    }
+}
@@ -0,0 +1,36 @@
+package com.g4t1.client.entity;
+
+import java.time.Instant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// state of the outbox relay shared by every instance: who holds the lease to relay and until
+// when, and the offset up to which published events have reached the sinks
+@Entity
+@Table(name = "client_outbox_relay")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientOutboxRelay {
+
+    @Id
+    @Column(name = "name", length = 32)
+    private String name;
+
+    // null until an instance first takes the lease
+    @Column(name = "owner", length = 36)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private Instant leaseUntil;
+
+    @Column(name = "delivered_offset", nullable = false)
+    private long deliveredOffset;
+}
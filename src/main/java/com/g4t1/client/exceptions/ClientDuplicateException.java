@@ -0,0 +1,17 @@
+package com.g4t1.client.exceptions;
+
+import java.util.List;
+import com.g4t1.client.dto.ClientMatch;
+
+public class ClientDuplicateException extends RuntimeException {
+    private final List<ClientMatch> candidates;
+
+    public ClientDuplicateException(List<ClientMatch> candidates) {
+        super("client looks like an existing client, retry with allowDuplicates=true to create it anyway");
+        this.candidates = candidates;
+    }
+
+    public List<ClientMatch> getCandidates() {
+        return candidates;
+    }
+}
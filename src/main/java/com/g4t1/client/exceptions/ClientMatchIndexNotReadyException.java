@@ -0,0 +1,7 @@
+package com.g4t1.client.exceptions;
+
+public class ClientMatchIndexNotReadyException extends RuntimeException {
+    public ClientMatchIndexNotReadyException() {
+        super("client match index is still loading, please retry");
+    }
+}
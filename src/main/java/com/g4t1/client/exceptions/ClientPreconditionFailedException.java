@@ -0,0 +1,7 @@
+package com.g4t1.client.exceptions;
+
+public class ClientPreconditionFailedException extends RuntimeException{
+    public ClientPreconditionFailedException(){
+        super("client version does not match If-Match");
+    }
+}
@@ -0,0 +1,7 @@
+package com.g4t1.client.exceptions;
+
+public class ClientSearchIndexNotReadyException extends RuntimeException {
+    public ClientSearchIndexNotReadyException() {
+        super("client search index is still loading, please retry");
+    }
+}
@@ -0,0 +1,7 @@
+package com.g4t1.client.exceptions;
+
+public class ClientVersionConflictException extends RuntimeException{
+    public ClientVersionConflictException(){
+        super("client was modified concurrently, please retry");
+    }
+}
@@ -1,9 +1,11 @@
 package com.g4t1.client.exceptions;
 
+import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import com.g4t1.client.dto.ClientMatch;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -13,6 +15,38 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
 
+    @ExceptionHandler(ClientVersionConflictException.class)
+    public ResponseEntity<String> handleClientVersionConflictException(ClientVersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    // the body lists the existing clients so the caller can pick one instead
+    @ExceptionHandler(ClientDuplicateException.class)
+    public ResponseEntity<List<ClientMatch>> handleClientDuplicateException(ClientDuplicateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getCandidates());
+    }
+
+    @ExceptionHandler(ClientMatchIndexNotReadyException.class)
+    public ResponseEntity<String> handleClientMatchIndexNotReadyException(ClientMatchIndexNotReadyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ClientSearchIndexNotReadyException.class)
+    public ResponseEntity<String> handleClientSearchIndexNotReadyException(ClientSearchIndexNotReadyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ClientPreconditionFailedException.class)
+    public ResponseEntity<String> handleClientPreconditionFailedException(
+            ClientPreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<String> handleImportJobNotFoundException(ImportJobNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
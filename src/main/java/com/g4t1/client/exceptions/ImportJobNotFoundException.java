@@ -0,0 +1,7 @@
+package com.g4t1.client.exceptions;
+
+public class ImportJobNotFoundException extends RuntimeException{
+    public ImportJobNotFoundException(){
+        super("import job not found");
+    }
+}
@@ -0,0 +1,85 @@
+package com.g4t1.client.repository;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.g4t1.client.entity.Client;
+
+// plain jdbc writer for bulk ingestion, bypasses the jpa persistence context so that
+// rows are sent to the database in jdbc batches instead of one insert per save()
+@Repository
+public class ClientBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO clients (client_id, first_name, last_name, "
+            + "date_of_birth, gender, email_address, phone_number, address, city, state, country, "
+            + "postal_code, validated, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClientIdCodec idCodec;
+    private final int jdbcBatchSize;
+    private final int chunkSize;
+
+    public ClientBatchRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            ClientIdCodec idCodec,
+            @Value("${client.batch.jdbc-batch-size:500}") int jdbcBatchSize,
+            @Value("${client.batch.chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idCodec = idCodec;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    // inserts the clients one chunk per transaction and returns the ids that could not be saved.
+    // inTransaction runs with each inserted chunk before it commits
+    public List<String> insertAll(List<Client> batch, Consumer<List<Client>> inTransaction) {
+        List<String> failedIds = new ArrayList<>();
+
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<Client> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insertChunk(chunk);
+                    inTransaction.accept(chunk);
+                });
+            } catch (RuntimeException e) {
+                // a single bad row rolls back its whole chunk, retry row by row to isolate it
+                for (Client client : chunk) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            insertChunk(List.of(client));
+                            inTransaction.accept(List.of(client));
+                        });
+                    } catch (RuntimeException rowError) {
+                        failedIds.add(client.getId());
+                    }
+                }
+            }
+        }
+        return failedIds;
+    }
+
+    private void insertChunk(List<Client> chunk) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, chunk, jdbcBatchSize, (ps, client) -> {
+            ps.setObject(1, idCodec.toJdbc(client.getId()));
+            ps.setString(2, client.getFirstName());
+            ps.setString(3, client.getLastName());
+            ps.setDate(4, Date.valueOf(client.getDateOfBirth()));
+            ps.setString(5, client.getGender());
+            ps.setString(6, client.getEmailAddress());
+            ps.setString(7, client.getPhoneNumber());
+            ps.setString(8, client.getAddress());
+            ps.setString(9, client.getCity());
+            ps.setString(10, client.getState());
+            ps.setString(11, client.getCountry());
+            ps.setString(12, client.getPostalCode());
+            ps.setBoolean(13, client.getValidated());
+            ps.setLong(14, client.getVersion());
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.g4t1.client.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.data.jpa.domain.Specification;
+import com.g4t1.client.entity.Client;
+
+// set-based writes that bypass the persistence context, callers run them inside a transaction
+public interface ClientBulkUpdateRepository {
+
+    // locks up to limit clients matching spec, in id order, and returns their current versions
+    Map<String, Long> lockVersions(Specification<Client> spec, int limit);
+
+    // one UPDATE for the whole id set that also bumps version, returns the rows changed
+    int updateFields(Collection<String> ids, Map<String, Object> values);
+
+    // removes one client and returns the rows deleted, a single DELETE statement either way. see
+    // the implementation for when it goes through the persistence context
+    int deleteClientById(String id);
+}
@@ -0,0 +1,80 @@
+package com.g4t1.client.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.data.jpa.domain.Specification;
+import com.g4t1.client.entity.Client;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// picked up by spring data as the implementation of the ClientBulkUpdateRepository fragment
+class ClientBulkUpdateRepositoryImpl implements ClientBulkUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<String, Long> lockVersions(Specification<Client> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Client> root = query.from(Client.class);
+        Path<String> id = root.get("id");
+        Path<Long> version = root.get("version");
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(id, version).orderBy(cb.asc(id));
+
+        Map<String, Long> versions = new LinkedHashMap<>();
+        entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList()
+                .forEach(row -> versions.put(row.get(id), row.get(version)));
+        return versions;
+    }
+
+    @Override
+    public int updateFields(Collection<String> ids, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Client> update = cb.createCriteriaUpdate(Client.class);
+        Root<Client> root = update.from(Client.class);
+
+        values.forEach((field, value) -> update.set(root.get(field), value));
+        // concurrent optimistic updates of these rows now fail their version check
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.where(root.get("id").in(ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // a client held in hibernate's second-level cache is removed as an entity: found in the
+    // cache without a select, deleted by id and version, and evicted on its own, where a bulk
+    // DELETE would empty the whole client region. without the cache, or with the client not in
+    // it, one bulk DELETE by id. a concurrent update fails the version check, the caller retries
+    @Override
+    public int deleteClientById(String id) {
+        if (entityManager.getEntityManagerFactory().getCache().contains(Client.class, id)) {
+            Client cached = entityManager.find(Client.class, id);
+            if (cached != null) {
+                entityManager.remove(cached);
+                entityManager.flush();
+                return 1;
+            }
+        }
+        return entityManager.createQuery("DELETE FROM Client c WHERE c.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,36 @@
+package com.g4t1.client.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import com.g4t1.client.entity.ClientEvent;
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface ClientEventRepository extends JpaRepository<ClientEvent, Long> {
+
+    // a plain read, only the relay holding the lease assigns offsets
+    List<ClientEvent> findByPublishedOffsetIsNullOrderByIdAsc(Limit limit);
+
+    List<ClientEvent> findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(long after, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.publishedOffset), 0) FROM ClientEvent e")
+    long findLastPublishedOffset();
+
+    @Query("SELECT COALESCE(MIN(e.publishedOffset), 0) FROM ClientEvent e")
+    long findFirstPublishedOffset();
+
+    // the newest offset below the given one among events written before the cutoff
+    @Query("SELECT COALESCE(MAX(e.publishedOffset), 0) FROM ClientEvent e "
+            + "WHERE e.publishedOffset < :below AND e.createdAt < :cutoff")
+    long findLastPublishedOffsetBefore(long below, Instant cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ClientEvent e WHERE e.publishedOffset BETWEEN :from AND :to")
+    int deletePublished(long from, long to);
+}
@@ -0,0 +1,19 @@
+package com.g4t1.client.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.g4t1.client.entity.ClientIdJavaType;
+
+// binds client ids for plain jdbc statements the same way hibernate stores them
+@Component
+public class ClientIdCodec {
+    private final boolean binary;
+
+    public ClientIdCodec(@Value("${client.id.storage:CHAR}") String storage) {
+        this.binary = "BINARY".equalsIgnoreCase(storage);
+    }
+
+    public Object toJdbc(String id) {
+        return binary ? ClientIdJavaType.toBytes(id) : id;
+    }
+}
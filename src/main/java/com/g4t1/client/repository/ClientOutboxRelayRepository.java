@@ -0,0 +1,28 @@
+package com.g4t1.client.repository;
+
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import com.g4t1.client.entity.ClientOutboxRelay;
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface ClientOutboxRelayRepository extends JpaRepository<ClientOutboxRelay, String> {
+
+    // takes the lease when it is free or has run out, or extends it for its holder. one row
+    // updated means the caller holds the lease until the given instant
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClientOutboxRelay r SET r.owner = :owner, r.leaseUntil = :until "
+            + "WHERE r.name = :name AND (r.owner = :owner OR r.owner IS NULL OR r.leaseUntil < :now)")
+    int acquireLease(String name, String owner, Instant now, Instant until);
+
+    // only the lease holder moves the cursor, and only forwards
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClientOutboxRelay r SET r.deliveredOffset = :offset "
+            + "WHERE r.name = :name AND r.owner = :owner AND r.deliveredOffset < :offset")
+    int advanceDelivered(String name, String owner, long offset);
+}
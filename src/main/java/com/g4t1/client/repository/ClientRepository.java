@@ -3,17 +3,26 @@ package com.g4t1.client.repository;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 import com.g4t1.client.entity.Client;
 import jakarta.persistence.LockModeType;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, String> {
+public interface ClientRepository
+        extends JpaRepository<Client, String>, JpaSpecificationExecutor<Client>,
+        ClientBulkUpdateRepository {
+    // written out rather than derived: hibernate builds a derived finder's criteria query afresh
+    // on every call, while jpql text is parsed once and served from the query plan cache
+    @org.springframework.data.jpa.repository.Query("SELECT c FROM Client c WHERE c.firstName = :firstName")
     List<Client> findByFirstName(String firstName);
 
+    @org.springframework.data.jpa.repository.Query("SELECT c FROM Client c WHERE c.lastName = :lastName")
     List<Client> findByLastName(String lastName);
 
+    @org.springframework.data.jpa.repository.Query(
+            "SELECT c FROM Client c WHERE c.firstName = :firstName AND c.lastName = :lastName")
     List<Client> findByFirstNameAndLastName(String firstName, String lastName);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
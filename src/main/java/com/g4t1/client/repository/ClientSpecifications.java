@@ -0,0 +1,41 @@
+package com.g4t1.client.repository;
+
+import java.util.Collection;
+import org.springframework.data.jpa.domain.Specification;
+import com.g4t1.client.dto.ClientSearchCriteria;
+import com.g4t1.client.entity.Client;
+
+public final class ClientSpecifications {
+
+    private ClientSpecifications() {
+    }
+
+    public static Specification<Client> matching(ClientSearchCriteria criteria) {
+        return Specification.allOf(
+                equalTo("firstName", criteria.getFirstName()),
+                equalTo("lastName", criteria.getLastName()),
+                equalTo("city", criteria.getCity()),
+                equalTo("state", criteria.getState()),
+                equalTo("country", criteria.getCountry()),
+                equalTo("validated", criteria.getValidated()));
+    }
+
+    // keyset condition, the page starts right after the last id the caller has seen
+    public static Specification<Client> idAfter(String after) {
+        if (after == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), after);
+    }
+
+    public static Specification<Client> idIn(Collection<String> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    private static Specification<Client> equalTo(String attribute, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+}
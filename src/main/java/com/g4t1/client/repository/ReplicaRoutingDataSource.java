@@ -0,0 +1,37 @@
+package com.g4t1.client.repository;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// sends connections to the primary unless the caller asked for the replica with onReplica. it
+// decides when a connection is opened, so it sits behind a LazyConnectionDataSourceProxy and
+// a transaction already holding a primary connection keeps using it
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Boolean> REPLICA = ThreadLocal.withInitial(() -> false);
+
+    private enum Route {
+        PRIMARY, REPLICA
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    public static <T> T onReplica(Supplier<T> read) {
+        boolean outer = REPLICA.get();
+        REPLICA.set(true);
+        try {
+            return read.get();
+        } finally {
+            REPLICA.set(outer);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return REPLICA.get() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,11 @@
+package com.g4t1.client.service;
+
+import java.util.List;
+import com.g4t1.client.entity.ClientEvent;
+
+// destination for published change events. called by the relay outside any transaction once
+// the batch has its offsets, throwing keeps the batch from counting as delivered so it is handed
+// to every sink again on the next run (at least once)
+public interface ClientEventSink {
+    void publish(List<ClientEvent> events);
+}
@@ -0,0 +1,5 @@
+package com.g4t1.client.service;
+
+public interface ClientIdGenerator {
+    String nextId();
+}
@@ -0,0 +1,11 @@
+package com.g4t1.client.service;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+import com.g4t1.client.dto.ImportJob;
+
+public interface ClientImportService {
+    ImportJob importClients(InputStream ndjson, Consumer<ImportJob> onProgress);
+
+    ImportJob getImportJob(String jobId);
+}
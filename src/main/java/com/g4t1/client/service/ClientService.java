@@ -1,18 +1,60 @@
 package com.g4t1.client.service;
 
+import java.util.List;
+import java.util.Set;
+import com.g4t1.client.dto.ClientBatchResult;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientBulkPatchResult;
+import com.g4t1.client.dto.ClientLookup;
+import com.g4t1.client.dto.ClientMatch;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.dto.ClientSearchCriteria;
 import com.g4t1.client.entity.Client;
 
 public interface ClientService {
     boolean validateSourceData(Client source, boolean create);
 
-    boolean validateClient(String targetId);
+    boolean validateClientId(String targetId);
 
     Client createClient(Client clientData);
 
+    // unless allowDuplicates, rejects a client that scores as a duplicate of an existing one
+    Client createClient(Client clientData, boolean allowDuplicates);
+
+    List<ClientBatchResult> createClients(List<Client> clientData);
+
     Client updateClient(String id, Client source);
 
+    // expectedVersions come from If-Match, the update goes ahead if the current version is one of
+    // them. null means update whatever version is current
+    Client updateClient(String id, Client source, Set<Long> expectedVersions);
+
+    // write-behind: acknowledged once durably queued, updates of the same client are coalesced
+    // and flushed to the database in batches. the returned client shows the queued fields
+    Client queueUpdate(String id, Client source);
+
+    // applies the same fields to many clients with set-based updates, chunk by chunk
+    ClientBulkPatchResult patchClients(ClientBulkPatch patch);
+
     Client getClient(String id);
 
+    // strong entity tag of the client as getClient returned it
+    String entityTag(Client client);
+
+    // the entity tag of a cached client without loading it, null when it is not cached
+    String cachedEntityTag(String id);
+
+    // many clients by id in one call, ids that do not exist are reported instead of failing it
+    ClientLookup getClients(List<String> ids);
+
+    ClientPage searchClients(ClientSearchCriteria criteria, String after, Integer limit);
+
+    // ranked full-text search over names, addresses and postal codes, words may be fragments
+    ClientPage searchClientsByText(String text, String after, Integer limit);
+
+    // existing clients resembling the probe, best first. any of its fields may be left out
+    List<ClientMatch> findMatches(Client probe, Integer limit);
+
     boolean deleteClient(String id);
 
     boolean healthCheck();
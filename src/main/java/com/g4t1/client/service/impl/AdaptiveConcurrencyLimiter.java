@@ -0,0 +1,99 @@
+package com.g4t1.client.service.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// concurrency limit of one operation, adjusted from the latency of its completed calls the way a
+// gradient limiter does: a long average of the round trip time stands in for the latency without
+// load, and while recent calls take longer than tolerance times that, the limit shrinks in
+// proportion. otherwise it grows by roughly sqrt(limit), but only while the calls in flight use
+// at least half of it, an idle operation does not earn headroom it never tested
+public class AdaptiveConcurrencyLimiter {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    // not a monitor, so a virtual thread waiting on it does not pin its carrier
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double longRtt;
+    private double shortRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("concurrency limits need 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    // never waits, a call over the limit is for the caller to reject
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        int current = inflight.getAndDecrement();
+        if (rttNanos > 0) {
+            sample(rttNanos, current);
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    private void sample(long rtt, int inflightAtCompletion) {
+        sampleLock.lock();
+        try {
+            adjust(rtt, inflightAtCompletion);
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    private void adjust(long rtt, int inflightAtCompletion) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+            return;
+        }
+        longRtt += (rtt - longRtt) * LONG_ALPHA;
+        shortRtt += (rtt - shortRtt) * SHORT_ALPHA;
+
+        // after a long overload the average is far above the recovered latency, pull it down
+        // faster than the long window would so the limit can grow back
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inflightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit,
+                Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
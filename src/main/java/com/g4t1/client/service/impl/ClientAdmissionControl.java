@@ -0,0 +1,126 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// decides whether an api call may start: first the caller's token bucket, then the concurrency
+// limit of the operation. both answer straight away, a call that does not fit is rejected rather
+// than parked on a Tomcat thread or in the connection pool queue
+@Component
+public class ClientAdmissionControl {
+
+    public enum Rejection {
+        RATE, CONCURRENCY
+    }
+
+    private final MeterRegistry registry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    // idle callers are forgotten, a bucket that has been idle that long is full again anyway
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+
+    public ClientAdmissionControl(MeterRegistry registry,
+            @Value("${client.admission.concurrency.initial-limit:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int initialLimit,
+            @Value("${client.admission.concurrency.min-limit:4}") int minLimit,
+            @Value("${client.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${client.admission.rate.permits-per-second:0}") double permitsPerSecond,
+            @Value("${client.admission.rate.burst:0}") double burst) {
+        this.registry = registry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.permitsPerSecond = permitsPerSecond;
+        // a burst below one request would reject everything
+        this.burst = Math.max(1, burst > 0 ? burst : permitsPerSecond);
+        Gauge.builder("client.admission.callers", buckets, Cache::estimatedSize)
+                .description("callers with a rate limit bucket")
+                .register(registry);
+    }
+
+    // 0 when the caller may go ahead, otherwise how long until its next token. a rate of 0
+    // turns the per-caller limit off
+    public long tryAcquireRate(String caller) {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        return buckets.get(caller, key -> new TokenBucket(burst, now)).tryTake(permitsPerSecond, burst, now);
+    }
+
+    public AdaptiveConcurrencyLimiter limiter(String operation) {
+        return limiters.computeIfAbsent(operation, this::newLimiter);
+    }
+
+    public void rejected(String operation, Rejection reason) {
+        rejections.computeIfAbsent(operation + ':' + reason, key -> Counter.builder("client.admission.rejected")
+                .description("api calls turned away before they started, by operation and reason")
+                .tag("operation", operation)
+                .tag("reason", reason.name().toLowerCase())
+                .register(registry))
+                .increment();
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String operation) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+        Gauge.builder("client.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("current concurrency limit of the operation")
+                .tag("operation", operation)
+                .register(registry);
+        Gauge.builder("client.admission.inflight", limiter, AdaptiveConcurrencyLimiter::inflight)
+                .description("calls of the operation in flight")
+                .tag("operation", operation)
+                .register(registry);
+        return limiter;
+    }
+
+    private static final class TokenBucket {
+        // not a monitor, so a virtual thread waiting on it does not pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        long tryTake(double permitsPerSecond, double burst, long now) {
+            lock.lock();
+            try {
+                // a caller racing itself may arrive with an older timestamp
+                if (now > refilledAt) {
+                    tokens = Math.min(burst,
+                            tokens + (now - refilledAt) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+                    refilledAt = now;
+                }
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - tokens) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
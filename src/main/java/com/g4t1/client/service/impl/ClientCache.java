@@ -0,0 +1,75 @@
+package com.g4t1.client.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.g4t1.client.entity.Client;
+
+// read-through cache of clients by id, bounded and expired through spring.cache.caffeine.spec.
+// it holds and hands out copies, so no caller can change a cached client by changing its own.
+// every eviction first bumps a generation, striped by id like ClientLocks: a client loaded from
+// the database is only cached if no eviction of its id happened since the load began
+@Component
+public class ClientCache {
+    public static final String CACHE_NAME = "clients";
+    private static final int STRIPES = 1024;
+
+    private final Cache cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public ClientCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public Client get(String id) {
+        Client cached = cache.get(id, Client.class);
+        return cached == null ? null : ClientFieldAccessor.copy(cached);
+    }
+
+    // taken before the client is loaded and handed to put with it
+    public long generation(String id) {
+        return generations.get(stripe(id));
+    }
+
+    // caches a client loaded after generation returned the given value. an eviction since then
+    // means a write committed while it was loaded, so it may be the old row and is dropped. an
+    // eviction landing between the check and the put is caught by the second check, or else
+    // comes after the put and removes it itself
+    public void put(Client client, long generation) {
+        String id = client.getId();
+        if (generations.get(stripe(id)) != generation) {
+            return;
+        }
+        cache.put(id, ClientFieldAccessor.copy(client));
+        if (generations.get(stripe(id)) != generation) {
+            cache.evict(id);
+        }
+    }
+
+    // evicts now and again once the surrounding transaction commits. a read that loaded the old
+    // row before the commit either put it before the second eviction, which removes it, or
+    // finds the generation moved and leaves it out
+    public void evict(String id) {
+        evictNow(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String id) {
+        generations.incrementAndGet(stripe(id));
+        cache.evict(id);
+    }
+
+    private static int stripe(String id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,94 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// database health for /health and the readiness probe. a background refresh checks that the
+// primary hands out a valid connection (a ping on MySQL, no query) and probes read the cached
+// result, so their rate and the table size never reach the database. a result older than
+// max-age means the refresh itself is stuck, e.g. waiting on an exhausted pool, and reads as down.
+// the refresh has a thread of its own: on the shared scheduler a long relay batch or flush held it
+// back past max-age and took every instance out of the load balancer at once
+@Component
+public class ClientDatabaseHealthIndicator implements HealthIndicator, SmartLifecycle {
+    private final JdbcTemplate jdbcTemplate;
+    private final int validationTimeoutSeconds;
+    private final Duration maxAge;
+    private final long refreshIntervalMillis;
+    private volatile ScheduledExecutorService refresher;
+    // out of service rather than unknown, which would let the readiness group aggregate to up
+    private volatile Health health = Health.outOfService().withDetail("reason", "not checked yet").build();
+    private volatile Instant checkedAt = Instant.EPOCH;
+
+    public ClientDatabaseHealthIndicator(DataSource dataSource,
+            @Value("${client.health.validation-timeout:2s}") Duration validationTimeout,
+            @Value("${client.health.max-age:15s}") Duration maxAge,
+            @Value("${client.health.refresh-interval-ms:5000}") long refreshIntervalMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+        this.maxAge = maxAge;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    @Override
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("client-health-refresh").daemon().factory());
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        refresher.shutdownNow();
+        refresher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
+    }
+
+    public void refresh() {
+        long started = System.nanoTime();
+        Health.Builder result;
+        try {
+            boolean valid = jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.isValid(validationTimeoutSeconds));
+            result = valid ? Health.up() : Health.down().withDetail("error", "connection is not valid");
+        } catch (RuntimeException e) {
+            // any failure, an escaping exception would end the fixed-delay schedule
+            result = Health.down(e);
+        }
+        Instant now = Instant.now();
+        health = result.withDetail("checkedAt", now)
+                .withDetail("validationMillis", Duration.ofNanos(System.nanoTime() - started).toMillis())
+                .build();
+        checkedAt = now;
+    }
+
+    @Override
+    public Health health() {
+        Health cached = health;
+        Instant at = checkedAt;
+        if (at != Instant.EPOCH && at.plus(maxAge).isBefore(Instant.now())) {
+            return Health.down().withDetail("error", "no health check result since " + at).build();
+        }
+        return cached;
+    }
+
+    public boolean isUp() {
+        return Status.UP.equals(health().getStatus());
+    }
+}
@@ -0,0 +1,138 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.entity.ClientOutboxRelay;
+import com.g4t1.client.repository.ClientEventRepository;
+import com.g4t1.client.repository.ClientOutboxRelayRepository;
+import com.g4t1.client.service.ClientEventSink;
+
+// moves committed outbox rows to the sinks in batches. only the instance holding the lease in
+// client_outbox_relay relays, so pending rows are read without locks and writers appending to
+// the outbox never wait on it. each batch first gets the next offsets in a short transaction,
+// then goes to every sink outside of it, and the delivered cursor moves past the batch once all
+// sinks took it: a failing sink leaves the batch to be delivered again on the next run. the
+// lease holder also purges delivered events once they are older than the retention
+@Component
+@ConditionalOnProperty(name = "client.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class ClientEventRelay {
+    private static final String NAME = "relay";
+    // rows deleted per statement when purging, each chunk commits on its own
+    private static final int PURGE_CHUNK_SIZE = 5000;
+
+    private final ClientEventRepository events;
+    private final ClientOutboxRelayRepository relays;
+    private final List<ClientEventSink> sinks;
+    private final ClientEventStream stream;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration retention;
+    private final String owner = UUID.randomUUID().toString();
+
+    public ClientEventRelay(ClientEventRepository events, ClientOutboxRelayRepository relays,
+            List<ClientEventSink> sinks, ClientEventStream stream, PlatformTransactionManager transactionManager,
+            @Value("${client.outbox.relay.batch-size:500}") int batchSize,
+            @Value("${client.outbox.relay.lease:30s}") Duration lease,
+            @Value("${client.outbox.retention:7d}") Duration retention) {
+        this.events = events;
+        this.relays = relays;
+        this.sinks = sinks;
+        this.stream = stream;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${client.outbox.relay.interval-ms:500}")
+    public void relay() {
+        int claimed;
+        int delivered;
+        do {
+            if (!holdLease()) {
+                return;
+            }
+            claimed = claimBatch();
+            delivered = deliverBatch();
+        } while (claimed == batchSize || delivered == batchSize);
+    }
+
+    // deletes delivered events written more than retention ago, oldest offsets first. the last
+    // delivered event always stays so the highest offset, and with it the next one, never goes
+    // back
+    @Scheduled(fixedDelayString = "${client.outbox.purge.interval-ms:3600000}")
+    public void purge() {
+        if (!holdLease()) {
+            return;
+        }
+        long upTo = events.findLastPublishedOffsetBefore(deliveredOffset(), Instant.now().minus(retention));
+        for (long from = events.findFirstPublishedOffset(); from > 0 && from <= upTo; from += PURGE_CHUNK_SIZE) {
+            events.deletePublished(from, Math.min(from + PURGE_CHUNK_SIZE - 1, upTo));
+        }
+    }
+
+    // takes or extends the lease, creating the relay row on first use. the cursor of a new row
+    // starts at the last offset already in the outbox, those events were delivered before
+    private boolean holdLease() {
+        Instant now = Instant.now();
+        if (relays.acquireLease(NAME, owner, now, now.plus(lease)) == 1) {
+            return true;
+        }
+        if (relays.existsById(NAME)) {
+            return false;
+        }
+        try {
+            relays.save(new ClientOutboxRelay(NAME, null, Instant.EPOCH, events.findLastPublishedOffset()));
+        } catch (DataIntegrityViolationException e) {
+            // another instance created it first, the lease decides
+        }
+        return relays.acquireLease(NAME, owner, now, now.plus(lease)) == 1;
+    }
+
+    // numbers the oldest pending rows and commits, returns how many. a relay that lost its
+    // lease while paused fails on the unique offset index instead of numbering rows twice
+    private int claimBatch() {
+        return transactionTemplate.execute(status -> {
+            List<ClientEvent> pending = events.findByPublishedOffsetIsNullOrderByIdAsc(Limit.of(batchSize));
+            long offset = events.findLastPublishedOffset();
+            for (ClientEvent event : pending) {
+                event.setPublishedOffset(++offset);
+            }
+            return pending.size();
+        });
+    }
+
+    // hands the next numbered events past the cursor to the sinks, returns how many
+    private int deliverBatch() {
+        List<ClientEvent> batch = events.findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(
+                deliveredOffset(), Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (ClientEventSink sink : sinks) {
+            sink.publish(batch);
+        }
+        if (relays.advanceDelivered(NAME, owner, batch.get(batch.size() - 1).getPublishedOffset()) == 0) {
+            // the lease ran out during delivery, its new holder delivers the batch again
+            return 0;
+        }
+        stream.broadcast(batch);
+        return batch.size();
+    }
+
+    private long deliveredOffset() {
+        return relays.findById(NAME).map(ClientOutboxRelay::getDeliveredOffset).orElse(0L);
+    }
+}
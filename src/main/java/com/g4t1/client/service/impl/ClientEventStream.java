@@ -0,0 +1,120 @@
+package com.g4t1.client.service.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.repository.ClientEventRepository;
+
+// fans published events out to server-sent event subscribers. a subscriber first replays
+// from the outbox table after its cursor, then follows the batches the relay broadcasts
+@Component
+public class ClientEventStream {
+    private static final int REPLAY_PAGE_SIZE = 500;
+
+    private final ClientEventRepository events;
+    private final TaskExecutor taskExecutor;
+    private final long timeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public ClientEventStream(ClientEventRepository events,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${client.outbox.stream-timeout:30m}") Duration timeout) {
+        this.events = events;
+        this.taskExecutor = taskExecutor;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(long after) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), after);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+
+        // registered before replaying, so a batch published meanwhile is caught by one or the other
+        subscribers.add(subscriber);
+        taskExecutor.execute(subscriber::catchUp);
+        return subscriber.emitter;
+    }
+
+    // called by the relay once a batch is committed. delivery runs off the relay thread so a
+    // slow subscriber holds up only itself
+    public void broadcast(List<ClientEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            taskExecutor.execute(() -> subscriber.deliver(batch));
+        }
+    }
+
+    // live batches only save a read of the outbox table, whenever one does not continue right
+    // after the cursor the subscriber reads the table instead
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long cursor;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void catchUp() {
+            deliver(List.of());
+        }
+
+        void deliver(List<ClientEvent> batch) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (batch.isEmpty() || batch.get(0).getPublishedOffset() > cursor + 1) {
+                    replay();
+                } else {
+                    send(batch);
+                }
+            } catch (IOException | RuntimeException e) {
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void replay() throws IOException {
+            List<ClientEvent> page;
+            do {
+                page = events.findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(cursor,
+                        Limit.of(REPLAY_PAGE_SIZE));
+                send(page);
+            } while (page.size() == REPLAY_PAGE_SIZE);
+        }
+
+        private void send(List<ClientEvent> batch) throws IOException {
+            for (ClientEvent event : batch) {
+                // already sent by an earlier replay
+                if (event.getPublishedOffset() <= cursor) {
+                    continue;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getPublishedOffset()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+                cursor = event.getPublishedOffset();
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.g4t1.client.service.impl;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.springframework.util.StringUtils;
+import com.g4t1.client.entity.Client;
+
+// getters and setters of every Client field, bound once through LambdaMetafactory so that
+// validation and partial updates do not go through java.lang.reflect on each request
+public final class ClientFieldAccessor {
+    public static final String ID_FIELD = "id";
+    public static final String VERSION_FIELD = "version";
+    public static final String VALIDATED_FIELD = "validated";
+
+    private static final Accessor[] ACCESSORS = buildAccessors();
+    private static final Map<String, Accessor> BY_NAME = indexByName(ACCESSORS);
+
+    private ClientFieldAccessor() {
+    }
+
+    public record Accessor(String name, Class<?> type, Function<Client, Object> getter,
+            BiConsumer<Client, Object> setter) {
+    }
+
+    public static List<Accessor> accessors() {
+        return List.of(ACCESSORS);
+    }
+
+    // id must always be absent, and in a create request every other field must be present except
+    // validated, which defaults to false. version is managed by the server and ignored in both
+    public static boolean validate(Client source, boolean create) {
+        if (source == null) {
+            return false;
+        }
+
+        for (Accessor accessor : ACCESSORS) {
+            if (accessor.name.equals(VERSION_FIELD) || accessor.name.equals(VALIDATED_FIELD)) {
+                continue;
+            }
+            Object value = accessor.getter.apply(source);
+            if (accessor.name.equals(ID_FIELD)) {
+                if (value != null) {
+                    return false;
+                }
+            } else if (create && value == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // what a create leaves out and still stores, call after validate
+    public static void applyCreateDefaults(Client source) {
+        if (source.getValidated() == null) {
+            source.setValidated(false);
+        }
+    }
+
+    // copies every non-null, non-blank field of source onto target, id and version are never
+    // copied. returns whether any target field actually changed
+    public static boolean merge(Client source, Client target) {
+        boolean changed = false;
+        for (Accessor accessor : ACCESSORS) {
+            if (accessor.name.equals(ID_FIELD) || accessor.name.equals(VERSION_FIELD)) {
+                continue;
+            }
+
+            Object value = accessor.getter.apply(source);
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof String text && !StringUtils.hasText(text)) {
+                continue;
+            }
+            if (value.equals(accessor.getter.apply(target))) {
+                continue;
+            }
+            accessor.setter.accept(target, value);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // a detached copy of every field, id and version included
+    public static Client copy(Client source) {
+        Client copy = new Client();
+        for (Accessor accessor : ACCESSORS) {
+            accessor.setter.accept(copy, accessor.getter.apply(source));
+        }
+        return copy;
+    }
+
+    // over every field, tells two states of a client apart where the version cannot
+    public static int hash(Client client) {
+        int hash = 1;
+        for (Accessor accessor : ACCESSORS) {
+            hash = 31 * hash + Objects.hashCode(accessor.getter.apply(client));
+        }
+        return hash;
+    }
+
+    // converts a field-to-value map from a json body to the field types, rejecting unknown,
+    // server-managed and empty fields the same way merge would ignore them
+    public static Map<String, Object> coerce(Map<String, Object> values) {
+        Map<String, Object> coerced = new LinkedHashMap<>();
+        values.forEach((name, value) -> {
+            Accessor accessor = BY_NAME.get(name);
+            if (accessor == null || name.equals(ID_FIELD) || name.equals(VERSION_FIELD)) {
+                throw new IllegalArgumentException("field cannot be set: " + name);
+            }
+            if (value == null || value instanceof String text && !StringUtils.hasText(text)) {
+                throw new IllegalArgumentException("field needs a value: " + name);
+            }
+            coerced.put(name, coerceValue(accessor, value));
+        });
+        return coerced;
+    }
+
+    private static Object coerceValue(Accessor accessor, Object value) {
+        Class<?> boxed = MethodType.methodType(accessor.type()).wrap().returnType();
+        if (boxed.isInstance(value)) {
+            return value;
+        }
+        if (accessor.type() == LocalDate.class && value instanceof String text) {
+            try {
+                return LocalDate.parse(text);
+            } catch (DateTimeParseException e) {
+                // falls through to the type error below
+            }
+        }
+        throw new IllegalArgumentException("field " + accessor.name() + " expects a "
+                + boxed.getSimpleName().toLowerCase());
+    }
+
+    private static Map<String, Accessor> indexByName(Accessor[] accessors) {
+        Map<String, Accessor> byName = new LinkedHashMap<>();
+        for (Accessor accessor : accessors) {
+            byName.put(accessor.name(), accessor);
+        }
+        return Map.copyOf(byName);
+    }
+
+    private static Accessor[] buildAccessors() {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Accessor> accessors = new ArrayList<>();
+
+        try {
+            for (Field field : Client.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+
+                String suffix = StringUtils.capitalize(field.getName());
+                String getterName = (field.getType() == boolean.class ? "is" : "get") + suffix;
+                MethodHandle getter = lookup.findVirtual(Client.class, getterName,
+                        MethodType.methodType(field.getType()));
+                MethodHandle setter = lookup.findVirtual(Client.class, "set" + suffix,
+                        MethodType.methodType(void.class, field.getType()));
+
+                accessors.add(new Accessor(field.getName(), field.getType(),
+                        bindGetter(lookup, getter), bindSetter(lookup, setter)));
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("failed to build client field accessors", e);
+        }
+        return accessors.toArray(Accessor[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Client, Object> bindGetter(MethodHandles.Lookup lookup,
+            MethodHandle getter) throws Throwable {
+        Class<?> boxed = MethodType.methodType(getter.type().returnType()).wrap().returnType();
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class), getter,
+                MethodType.methodType(boxed, Client.class));
+        return (Function<Client, Object>) site.getTarget().invokeExact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Client, Object> bindSetter(MethodHandles.Lookup lookup,
+            MethodHandle setter) throws Throwable {
+        Class<?> boxed = setter.type().wrap().parameterType(1);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class), setter,
+                MethodType.methodType(void.class, Client.class, boxed));
+        return (BiConsumer<Client, Object>) site.getTarget().invokeExact();
+    }
+}
@@ -0,0 +1,221 @@
+package com.g4t1.client.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.g4t1.client.dto.ClientBatchResult;
+import com.g4t1.client.dto.ImportJob;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.exceptions.ImportJobNotFoundException;
+import com.g4t1.client.service.ClientImportService;
+import com.g4t1.client.service.ClientService;
+
+@Service
+public class ClientImportServiceImpl implements ClientImportService {
+    private static final Logger log = LoggerFactory.getLogger(ClientImportServiceImpl.class);
+    private static final int MAX_TRACKED_JOBS = 100;
+
+    private final ClientService clientService;
+    private final ObjectReader clientReader;
+    private final int batchSize;
+    private final int maxLineLength;
+
+    // most recent jobs only, oldest entries are dropped once the limit is reached
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(
+            new LinkedHashMap<String, ImportJob>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+                    return size() > MAX_TRACKED_JOBS;
+                }
+            });
+
+    public ClientImportServiceImpl(ClientService clientService, ObjectMapper objectMapper,
+            @Value("${client.import.batch-size:1000}") int batchSize,
+            @Value("${client.import.max-line-length:65536}") int maxLineLength) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("client.import.batch-size must be at least 1");
+        }
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("client.import.max-line-length must be at least 1");
+        }
+        this.clientService = clientService;
+        this.clientReader = objectMapper.readerFor(Client.class);
+        this.batchSize = batchSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    @Override
+    public ImportJob importClients(InputStream ndjson, Consumer<ImportJob> onProgress) {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        onProgress.accept(job);
+
+        // the body is read one line at a time and at most one batch is held in memory,
+        // reading stops while a batch is written so a slow database throttles the upload
+        List<Client> batch = new ArrayList<>(batchSize);
+        long[] batchLines = new long[batchSize];
+
+        try (BoundedLineReader reader = new BoundedLineReader(
+                new InputStreamReader(ndjson, StandardCharsets.UTF_8), maxLineLength)) {
+            while (reader.next()) {
+                job.lineRead();
+                long lineNumber = job.getLinesRead();
+                if (reader.oversized()) {
+                    job.recordMalformed(lineNumber, "record longer than " + maxLineLength + " characters");
+                    continue;
+                }
+                String line = reader.line();
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+
+                try {
+                    batch.add(clientReader.readValue(line));
+                    batchLines[batch.size() - 1] = lineNumber;
+                } catch (JsonProcessingException e) {
+                    job.recordMalformed(lineNumber, "malformed json record");
+                    continue;
+                }
+
+                if (batch.size() == batchSize) {
+                    flush(job, batch, batchLines);
+                    onProgress.accept(job);
+                }
+            }
+            flush(job, batch, batchLines);
+            job.finish(ImportJob.Status.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            // callers read the job, so the cause, which may carry sql or driver details, stays
+            // in the server log and the job gets a fixed message against the line it stopped at
+            log.warn("import {} aborted at line {}", job.getId(), job.getLinesRead(), e);
+            job.recordFailed(job.getLinesRead(), e instanceof IOException
+                    ? "import aborted: the upload could not be read"
+                    : "import aborted: the records could not be processed");
+            job.finish(ImportJob.Status.FAILED);
+            // the caller may be what failed, so a failing last report must not replace the
+            // recorded error, which getImportJob still returns
+            try {
+                onProgress.accept(job);
+            } catch (RuntimeException reportFailure) {
+                // nobody left to report to, the job keeps the original error
+            }
+            return job;
+        }
+
+        onProgress.accept(job);
+        return job;
+    }
+
+    private void flush(ImportJob job, List<Client> batch, long[] batchLines) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long created = 0;
+        for (ClientBatchResult result : clientService.createClients(batch)) {
+            long line = batchLines[result.getIndex()];
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case REJECTED -> job.recordRejected(line, result.getError());
+                case FAILED -> job.recordFailed(line, result.getError());
+            }
+        }
+        job.recordCreated(created);
+        batch.clear();
+    }
+
+    @Override
+    public ImportJob getImportJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ImportJobNotFoundException();
+        }
+        return job;
+    }
+
+    // BufferedReader.readLine without its unbounded buffer: characters of a line past maxLength
+    // are dropped and the line is reported as oversized, so one huge line cannot fill the heap
+    private static final class BoundedLineReader implements AutoCloseable {
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean oversized;
+        // a line ended by \r, an \n right after it belongs to the same terminator
+        private boolean skipLineFeed;
+
+        BoundedLineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        // moves to the next line, false at the end of the input
+        boolean next() throws IOException {
+            line.setLength(0);
+            oversized = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read;
+                    }
+                }
+
+                char c = buffer[position++];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                read = true;
+                if (c == '\n') {
+                    return true;
+                }
+                if (c == '\r') {
+                    skipLineFeed = true;
+                    return true;
+                }
+                if (line.length() < maxLength) {
+                    line.append(c);
+                } else {
+                    oversized = true;
+                }
+            }
+        }
+
+        String line() {
+            return line.toString();
+        }
+
+        boolean oversized() {
+            return oversized;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
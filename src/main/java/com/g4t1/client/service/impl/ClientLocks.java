@@ -0,0 +1,39 @@
+package com.g4t1.client.service.impl;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// in-process locks by client id, striped so that they take no bookkeeping per client. several
+// ids are locked in stripe order, so two callers locking overlapping sets cannot deadlock
+final class ClientLocks {
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    ClientLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T locked(Collection<String> ids, Supplier<T> action) {
+        int[] held = ids.stream()
+                .mapToInt(id -> Math.floorMod(id.hashCode(), STRIPES))
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int stripe : held) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[held[i]].unlock();
+            }
+        }
+    }
+}
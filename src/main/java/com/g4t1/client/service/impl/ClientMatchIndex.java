@@ -0,0 +1,399 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.repository.ClientEventRepository;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.repository.ClientSpecifications;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// in-memory index for duplicate detection over normalized email, phone and phonetic name keys.
+// it is loaded from the clients table once the application is ready, then kept current from
+// this instance's own commits and from the published outbox events, which carry the writes of
+// every other instance. every entry carries its client version so that the two feeds can
+// overlap and arrive in any order
+@Component
+public class ClientMatchIndex {
+    private static final int REBUILD_PAGE_SIZE = 5000;
+    private static final int FOLLOW_PAGE_SIZE = 1000;
+    private static final int MIN_COMPACTION = 10_000;
+
+    // how much each field counts towards the score when the probe has it
+    private static final double EMAIL_WEIGHT = 0.35;
+    private static final double PHONE_WEIGHT = 0.30;
+    private static final double NAME_WEIGHT = 0.20;
+    private static final double DATE_OF_BIRTH_WEIGHT = 0.15;
+    private static final double SIMILAR_NAME = 0.8;
+
+    private record Entry(String id, long version, ClientMatchKeys keys) {
+    }
+
+    public record Candidate(String id, double score, List<String> matchedOn) {
+    }
+
+    private final ClientRepository clients;
+    private final ClientEventRepository events;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final ClientMetrics metrics;
+    private final Duration rebuildRetryDelay;
+    private final int maxPostingsPerKey;
+    private final double minScore;
+    private final double duplicateThreshold;
+    private final boolean rejectDuplicates;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // recently deleted ids, so an older event replayed after the delete cannot bring one back
+    private final Cache<String, Boolean> deleted = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+
+    // documents are append-only, a changed client gets a new document and its old slot is
+    // cleared, postings of cleared slots are skipped until the next compaction
+    private Entry[] entries = new Entry[1024];
+    private int documentCount;
+    private int liveCount;
+    private final Map<String, Integer> documentsById = new HashMap<>();
+    private ClientMatchPostings postings = new ClientMatchPostings(1024);
+
+    private volatile boolean ready;
+    // last outbox offset applied, negative until the rebuild has started
+    private volatile long cursor = -1;
+
+    public ClientMatchIndex(ClientRepository clients, ClientEventRepository events, ObjectMapper objectMapper,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor, ClientMetrics metrics,
+            @Value("${client.match.rebuild-retry-delay:1s}") Duration rebuildRetryDelay,
+            @Value("${client.match.max-postings-per-key:1000}") int maxPostingsPerKey,
+            @Value("${client.match.min-score:0.3}") double minScore,
+            @Value("${client.match.duplicate-threshold:0.6}") double duplicateThreshold,
+            @Value("${client.match.reject-duplicates:false}") boolean rejectDuplicates) {
+        this.clients = clients;
+        this.events = events;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.metrics = metrics;
+        this.rebuildRetryDelay = rebuildRetryDelay;
+        this.maxPostingsPerKey = maxPostingsPerKey;
+        this.minScore = minScore;
+        this.duplicateThreshold = duplicateThreshold;
+        this.rejectDuplicates = rejectDuplicates;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        taskExecutor.execute(() -> IndexRebuildRetry.untilDone(this::rebuild, rebuildRetryDelay,
+                () -> metrics.indexFailure("match", "rebuild")));
+    }
+
+    // scans the table in keyset pages. the cursor is taken before the first attempt, events
+    // published since are replayed on top of the scan and skipped where it already saw that
+    // version. a retry keeps that cursor, a delete followed meanwhile is not in the table to scan
+    public void rebuild() {
+        if (cursor < 0) {
+            cursor = events.findLastPublishedOffset();
+        }
+        List<Client> page;
+        String after = null;
+        do {
+            String from = after;
+            page = clients.findBy(Specification.allOf(ClientSpecifications.idAfter(from)),
+                    query -> query.sortBy(Sort.by("id")).limit(REBUILD_PAGE_SIZE).all());
+            lock.writeLock().lock();
+            try {
+                page.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        ready = true;
+    }
+
+    @Scheduled(fixedDelayString = "${client.match.follow-interval-ms:1000}")
+    public void follow() {
+        if (cursor < 0) {
+            return;
+        }
+        List<ClientEvent> page;
+        do {
+            page = events.findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(cursor,
+                    Limit.of(FOLLOW_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                page.forEach(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getPublishedOffset();
+            }
+        } while (page.size() == FOLLOW_PAGE_SIZE);
+    }
+
+    // the index only learns about a write once it has committed, a rolled back one never shows up
+    public void putAfterCommit(List<Client> written) {
+        afterCommit(() -> written.forEach(this::put));
+    }
+
+    // versionsBefore as passed to ClientOutbox.patched, each patch bumped the version by one
+    public void patchAfterCommit(Map<String, Long> versionsBefore, Map<String, Object> values) {
+        afterCommit(() -> versionsBefore.forEach((id, version) -> patch(id, version + 1, values)));
+    }
+
+    public void removeAfterCommit(String id) {
+        afterCommit(() -> remove(id));
+    }
+
+    // ranked candidates scoring at least min-score against the probe, best first
+    public List<Candidate> match(ClientMatchKeys probe, int limit) {
+        List<Candidate> candidates = candidates(probe, minScore);
+        return candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+    }
+
+    // candidates close enough to count as the same person, empty while the index is still
+    // loading or when duplicates are allowed
+    public List<Candidate> duplicates(Client client) {
+        if (!rejectDuplicates || !ready) {
+            return List.of();
+        }
+        return candidates(ClientMatchKeys.of(client), duplicateThreshold);
+    }
+
+    private List<Candidate> candidates(ClientMatchKeys probe, double threshold) {
+        String[] keys = probe.keys();
+        List<Candidate> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] found = new int[keys.length * maxPostingsPerKey];
+            int count = 0;
+            for (String key : keys) {
+                count = postings.collect(key, maxPostingsPerKey, found, count);
+            }
+            Arrays.sort(found, 0, count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = entries[found[i]];
+                if (entry == null || i > 0 && found[i] == found[i - 1]) {
+                    continue;
+                }
+                Candidate candidate = score(probe, entry);
+                if (candidate.score() >= threshold) {
+                    candidates.add(candidate);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        return candidates;
+    }
+
+    // fields the probe leaves out do not count against a candidate
+    private static Candidate score(ClientMatchKeys probe, Entry entry) {
+        ClientMatchKeys keys = entry.keys();
+        List<String> matchedOn = new ArrayList<>(4);
+        double total = 0;
+        double weight = 0;
+        if (probe.email() != null) {
+            weight += EMAIL_WEIGHT;
+            if (probe.email().equals(keys.email())) {
+                total += EMAIL_WEIGHT;
+                matchedOn.add("emailAddress");
+            }
+        }
+        if (probe.phone() != null) {
+            weight += PHONE_WEIGHT;
+            if (probe.phone().equals(keys.phone())) {
+                total += PHONE_WEIGHT;
+                matchedOn.add("phoneNumber");
+            }
+        }
+        if (probe.nameGrams().length > 0) {
+            weight += NAME_WEIGHT;
+            double similarity = probe.nameSimilarity(keys);
+            total += NAME_WEIGHT * similarity;
+            if (similarity >= SIMILAR_NAME) {
+                matchedOn.add("name");
+            }
+        }
+        if (probe.dateOfBirth() != null) {
+            weight += DATE_OF_BIRTH_WEIGHT;
+            if (probe.dateOfBirth().equals(keys.dateOfBirth())) {
+                total += DATE_OF_BIRTH_WEIGHT;
+                matchedOn.add("dateOfBirth");
+            }
+        }
+        double score = weight == 0 ? 0 : Math.round(total / weight * 1000) / 1000.0;
+        return new Candidate(entry.id(), score, matchedOn);
+    }
+
+    private void apply(ClientEvent event) {
+        if (event.getType() == ClientEvent.Type.DELETED) {
+            remove(event.getClientId());
+            return;
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            if (payload.has(ClientFieldAccessor.ID_FIELD)) {
+                put(objectMapper.treeToValue(payload, Client.class));
+            } else {
+                // a bulk patch event, only the patched fields
+                Map<String, Object> values = ClientFieldAccessor.coerce(objectMapper.convertValue(payload,
+                        objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class)));
+                patch(event.getClientId(), event.getVersion(), values);
+            }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // written by ClientOutbox, so this is not expected. skipping keeps the index following
+            // the rest of the stream, the entry is corrected by the client's next write
+            metrics.indexFailure("match", "apply");
+        }
+    }
+
+    private void put(Client client) {
+        lock.writeLock().lock();
+        try {
+            String id = client.getId();
+            long version = client.getVersion() == null ? 0 : client.getVersion();
+            Integer document = documentsById.get(id);
+            if (deleted.getIfPresent(id) != null || document != null && entries[document].version() >= version) {
+                return;
+            }
+            store(document, new Entry(id, version, ClientMatchKeys.of(client)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void patch(String id, long version, Map<String, Object> values) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documentsById.get(id);
+            if (document == null || entries[document].version() >= version) {
+                return;
+            }
+            // normalizing an already normalized field gives it back unchanged
+            ClientMatchKeys old = entries[document].keys();
+            ClientMatchKeys keys = ClientMatchKeys.of(
+                    (String) values.getOrDefault("firstName", old.firstName()),
+                    (String) values.getOrDefault("lastName", old.lastName()),
+                    (String) values.getOrDefault("emailAddress", old.email()),
+                    (String) values.getOrDefault("phoneNumber", old.phone()),
+                    (LocalDate) values.getOrDefault("dateOfBirth", old.dateOfBirth()));
+            store(document, new Entry(id, version, keys));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            deleted.put(id, Boolean.TRUE);
+            Integer document = documentsById.remove(id);
+            if (document != null) {
+                entries[document] = null;
+                liveCount--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // called with the write lock held
+    private void store(Integer document, Entry entry) {
+        String[] keys = entry.keys().keys();
+        if (document != null) {
+            if (Arrays.equals(entries[document].keys().keys(), keys)) {
+                // same lookup keys, the postings stay valid
+                entries[document] = entry;
+                return;
+            }
+            entries[document] = null;
+            liveCount--;
+        }
+        if (documentCount == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[documentCount] = entry;
+        for (String key : keys) {
+            postings.add(key, documentCount);
+        }
+        documentsById.put(entry.id(), documentCount);
+        documentCount++;
+        liveCount++;
+
+        if (documentCount - liveCount > Math.max(MIN_COMPACTION, liveCount)) {
+            compact();
+        }
+    }
+
+    // renumbers the live documents and rebuilds their postings, readers wait for it
+    private void compact() {
+        Entry[] live = new Entry[Math.max(1024, liveCount * 2)];
+        ClientMatchPostings compacted = new ClientMatchPostings(postings.size() / 2);
+        int count = 0;
+        for (int i = 0; i < documentCount; i++) {
+            Entry entry = entries[i];
+            if (entry == null) {
+                continue;
+            }
+            live[count] = entry;
+            for (String key : entry.keys().keys()) {
+                compacted.add(key, count);
+            }
+            documentsById.put(entry.id(), count);
+            count++;
+        }
+        entries = live;
+        postings = compacted;
+        documentCount = count;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.g4t1.client.service.impl;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import com.g4t1.client.entity.Client;
+
+// normalized form of the fields duplicate detection compares, and the lookup keys derived from
+// them. a key only has to bring likely duplicates together, the score decides what matches
+public record ClientMatchKeys(String firstName, String lastName, String firstSound, String lastSound,
+        String email, String phone, LocalDate dateOfBirth, int[] nameGrams) {
+    // digits compared from the end of a number, so a country code prefix does not matter
+    private static final int PHONE_DIGITS = 8;
+    private static final int MIN_PHONE_DIGITS = 6;
+
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    static {
+        METAPHONE.setMaxCodeLen(6);
+    }
+
+    public static ClientMatchKeys of(Client client) {
+        return of(client.getFirstName(), client.getLastName(), client.getEmailAddress(),
+                client.getPhoneNumber(), client.getDateOfBirth());
+    }
+
+    public static ClientMatchKeys of(String firstName, String lastName, String email, String phone,
+            LocalDate dateOfBirth) {
+        String first = name(firstName);
+        String last = name(lastName);
+        return new ClientMatchKeys(first, last, phonetic(first), phonetic(last), email(email), phone(phone),
+                dateOfBirth, grams(first, last));
+    }
+
+    // lowercased, and a +tag on the local part dropped since it reaches the same mailbox
+    static String email(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        int at = normalized.lastIndexOf('@');
+        int plus = normalized.indexOf('+');
+        if (at > 0 && plus > 0 && plus < at) {
+            normalized = normalized.substring(0, plus) + normalized.substring(at);
+        }
+        return normalized;
+    }
+
+    static String phone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits;
+    }
+
+    // lowercase letters and single spaces only, accents folded to the base letter
+    static String name(String name) {
+        if (name == null) {
+            return null;
+        }
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z]+", " ")
+                .trim();
+        return folded.isEmpty() ? null : folded;
+    }
+
+    static String phonetic(String name) {
+        if (name == null) {
+            return null;
+        }
+        String code = METAPHONE.doubleMetaphone(name.replace(" ", ""));
+        return code == null || code.isEmpty() ? null : code;
+    }
+
+    // lookup keys, each prefixed with its kind so equal strings of different fields never meet
+    public String[] keys() {
+        String[] keys = new String[5];
+        int count = 0;
+        if (email != null) {
+            keys[count++] = "e" + email;
+        }
+        if (phone != null) {
+            keys[count++] = "p" + phone;
+        }
+        if (firstSound != null && lastSound != null) {
+            // either order, first and last names get swapped on entry
+            keys[count++] = "n" + (firstSound.compareTo(lastSound) <= 0
+                    ? firstSound + "|" + lastSound
+                    : lastSound + "|" + firstSound);
+            // a misspelt first name still meets on the last name and the first initial, and the
+            // other way round
+            keys[count++] = "l" + lastSound + "|" + firstName.charAt(0);
+            keys[count++] = "f" + firstSound + "|" + lastName.charAt(0);
+        }
+        return Arrays.copyOf(keys, count);
+    }
+
+    // dice coefficient of the name trigrams, at least 0.8 when the names sound the same
+    public double nameSimilarity(ClientMatchKeys other) {
+        if (nameGrams.length == 0 || other.nameGrams.length == 0) {
+            return 0;
+        }
+        int shared = 0;
+        for (int i = 0, j = 0; i < nameGrams.length && j < other.nameGrams.length;) {
+            if (nameGrams[i] == other.nameGrams[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (nameGrams[i] < other.nameGrams[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        double dice = 2.0 * shared / (nameGrams.length + other.nameGrams.length);
+        if (dice < 0.8 && soundsAlike(other)) {
+            return 0.8;
+        }
+        return dice;
+    }
+
+    private boolean soundsAlike(ClientMatchKeys other) {
+        if (firstSound == null || lastSound == null || other.firstSound == null || other.lastSound == null) {
+            return false;
+        }
+        return firstSound.equals(other.firstSound) && lastSound.equals(other.lastSound)
+                || firstSound.equals(other.lastSound) && lastSound.equals(other.firstSound);
+    }
+
+    // hashed, sorted and distinct trigrams of the name tokens in alphabetical order
+    private static int[] grams(String first, String last) {
+        String joined = ((first == null ? "" : first) + " " + (last == null ? "" : last)).trim();
+        if (joined.isEmpty()) {
+            return new int[0];
+        }
+        String[] tokens = joined.split(" ");
+        Arrays.sort(tokens);
+        String padded = " " + String.join(" ", tokens) + " ";
+        int[] grams = new int[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = padded.substring(i, i + 3).hashCode();
+        }
+        return Arrays.stream(grams).sorted().distinct().toArray();
+    }
+}
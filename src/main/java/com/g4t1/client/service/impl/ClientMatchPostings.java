@@ -0,0 +1,99 @@
+package com.g4t1.client.service.impl;
+
+import java.util.Arrays;
+
+// key to document postings for the match index, in primitive arrays so that millions of
+// clients cost a few bytes per posting rather than an object each. keys are stored as 64-bit
+// hashes, a collision only adds a candidate that then scores low. each key's postings form a
+// linked list through next[], newest first. not thread-safe, the index guards it
+final class ClientMatchPostings {
+    private static final int NONE = -1;
+
+    // open addressing table of key hashes and the newest posting for each
+    private long[] keys;
+    private int[] heads;
+    private int keyCount;
+
+    private int[] docs;
+    private int[] next;
+    private int postingCount;
+
+    ClientMatchPostings(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys * 2) - 1) << 1;
+        keys = new long[capacity];
+        heads = new int[capacity];
+        Arrays.fill(heads, NONE);
+        docs = new int[Math.max(16, expectedKeys)];
+        next = new int[docs.length];
+    }
+
+    int size() {
+        return postingCount;
+    }
+
+    void add(String key, int doc) {
+        long hash = hash(key);
+        int slot = slot(hash);
+        if (heads[slot] == NONE) {
+            keys[slot] = hash;
+            keyCount++;
+        }
+        if (postingCount == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            next = Arrays.copyOf(next, next.length * 2);
+        }
+        docs[postingCount] = doc;
+        next[postingCount] = heads[slot];
+        heads[slot] = postingCount++;
+        if (keyCount * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    // writes up to limit documents posted under key into out from offset, newest first, and
+    // returns the new offset. out must have room for limit more
+    int collect(String key, int limit, int[] out, int offset) {
+        long hash = hash(key);
+        int posting = heads[slot(hash)];
+        for (int taken = 0; posting != NONE && taken < limit; taken++) {
+            out[offset++] = docs[posting];
+            posting = next[posting];
+        }
+        return offset;
+    }
+
+    // the slot holding hash, or the empty slot where it would go
+    private int slot(long hash) {
+        int mask = keys.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (heads[slot] != NONE && keys[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[oldKeys.length * 2];
+        heads = new int[oldHeads.length * 2];
+        Arrays.fill(heads, NONE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != NONE) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    // 64-bit fnv-1a over the chars
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
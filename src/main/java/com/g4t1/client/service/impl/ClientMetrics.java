@@ -0,0 +1,62 @@
+package com.g4t1.client.service.impl;
+
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// service internals that are neither a service call nor a repository call
+@Component
+public class ClientMetrics {
+    private final MeterRegistry registry;
+    private final Timer mergeTimer;
+    private final Counter noopUpdates;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ClientMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.mergeTimer = Timer.builder("client.update.merge")
+                .description("copying the fields of an update request onto the stored client")
+                .register(registry);
+        this.noopUpdates = Counter.builder("client.update.noop")
+                .description("updates whose values all matched the stored client, nothing was written")
+                .register(registry);
+        this.primaryReads = readCounter(registry, "primary");
+        this.replicaReads = readCounter(registry, "replica");
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String target) {
+        return Counter.builder("client.read")
+                .description("reads that could be served by the replica, by where they ran")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    public Timer mergeTimer() {
+        return mergeTimer;
+    }
+
+    public void noopUpdate() {
+        noopUpdates.increment();
+    }
+
+    public void primaryRead() {
+        primaryReads.increment();
+    }
+
+    public void replicaRead() {
+        replicaReads.increment();
+    }
+
+    // a failure the match or search index got past on its own: a rebuild that is retried, an
+    // event that is skipped, a follow or refresh that runs again on its next tick
+    public void indexFailure(String index, String operation) {
+        Counter.builder("client.index.failures")
+                .description("failures of the match and search indexes, by index and operation")
+                .tag("index", index)
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,82 @@
+package com.g4t1.client.service.impl;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.entity.ClientEvent;
+
+// appends change events to client_outbox. plain jdbc joins the caller's transaction, so an
+// event commits or rolls back with the change it describes, and bulk writes stay batched
+@Component
+public class ClientOutbox {
+    private static final String INSERT_SQL = "INSERT INTO client_outbox "
+            + "(client_id, type, client_version, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private record Event(String clientId, ClientEvent.Type type, Long version, String payload) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ClientOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void created(List<Client> clients) {
+        append(clients.stream()
+                .map(client -> new Event(client.getId(), ClientEvent.Type.CREATED, client.getVersion(), toJson(client)))
+                .toList());
+    }
+
+    public void updated(Client client) {
+        append(List.of(new Event(client.getId(), ClientEvent.Type.UPDATED, client.getVersion(), toJson(client))));
+    }
+
+    // versionsBefore holds each patched client's version as read before the update bumped it
+    public void patched(Map<String, Long> versionsBefore, Map<String, Object> values) {
+        String payload = toJson(values);
+        List<Event> events = new ArrayList<>(versionsBefore.size());
+        versionsBefore.forEach((id, version) ->
+                events.add(new Event(id, ClientEvent.Type.UPDATED, version + 1, payload)));
+        append(events);
+    }
+
+    public void deleted(String id) {
+        append(List.of(new Event(id, ClientEvent.Type.DELETED, null, null)));
+    }
+
+    private void append(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.clientId());
+            ps.setString(2, event.type().name());
+            if (event.version() == null) {
+                ps.setNull(3, Types.BIGINT);
+            } else {
+                ps.setLong(3, event.version());
+            }
+            ps.setString(4, event.payload());
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("failed to serialize client event", e);
+        }
+    }
+}
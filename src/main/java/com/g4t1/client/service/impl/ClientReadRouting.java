@@ -0,0 +1,99 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.g4t1.client.repository.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// decides whether a read may go to the replica. it may not inside a transaction, while the
+// replica trails by more than max-lag, or for a client written within the read-your-writes
+// window. without a configured replica every read stays on the only datasource
+@Component
+public class ClientReadRouting {
+    private static final int MAX_TRACKED_WRITES = 100_000;
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ClientMetrics metrics;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ClientReadRouting(Optional<ReplicaLagMonitor> lagMonitor, ClientMetrics metrics,
+            @Value("${client.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.lagMonitor = lagMonitor.orElse(null);
+        this.metrics = metrics;
+        // never shorter than max-lag: past it the replica is known to have the write, so a read
+        // from it cannot put the old row back into the client cache
+        Duration maxLag = lagMonitor.map(ReplicaLagMonitor::maxLag).orElse(Duration.ZERO);
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window.compareTo(maxLag) < 0 ? maxLag : window)
+                .maximumSize(MAX_TRACKED_WRITES)
+                .build();
+    }
+
+    // marks now and again on commit, so the window runs from when the write became visible
+    public void wrote(String id) {
+        if (lagMonitor == null) {
+            return;
+        }
+        recentWrites.put(id, Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWrites.put(id, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    public void wrote(Collection<String> ids) {
+        ids.forEach(this::wrote);
+    }
+
+    // a read that may see replica lag, such as a listing
+    public <T> T read(Supplier<T> read) {
+        return route(replicaAllowed(null), read);
+    }
+
+    // a read of one client, kept on the primary while that client's last write is recent
+    public <T> T read(String clientId, Supplier<T> read) {
+        return route(replicaAllowed(clientId), read);
+    }
+
+    // a read of several clients, kept on the primary while any of them was written recently
+    public <T> T read(Collection<String> clientIds, Supplier<T> read) {
+        return route(clientIds.stream().allMatch(this::replicaAllowed), read);
+    }
+
+    private <T> T route(boolean replicaAllowed, Supplier<T> read) {
+        if (!replicaAllowed) {
+            metrics.primaryRead();
+            return read.get();
+        }
+        try {
+            T result = ReplicaRoutingDataSource.onReplica(read);
+            metrics.replicaRead();
+            return result;
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException e) {
+            // replica unreachable, answer from the primary and leave it there until the next lag check
+            lagMonitor.replicaFailed();
+            metrics.primaryRead();
+            return read.get();
+        }
+    }
+
+    private boolean replicaAllowed(String clientId) {
+        return lagMonitor != null
+                && !TransactionSynchronizationManager.isActualTransactionActive()
+                && lagMonitor.usable()
+                && (clientId == null || recentWrites.getIfPresent(clientId) == null);
+    }
+}
@@ -0,0 +1,461 @@
+package com.g4t1.client.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.repository.ClientEventRepository;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.repository.ClientSpecifications;
+
+// lucene full-text index over client names, addresses and postal codes. like ClientMatchIndex it
+// is loaded after startup and kept current from this instance's own commits and from the
+// published outbox, which replays every write in commit order so the two feeds converge.
+// changes become searchable on the next follow pass. with client.search.index-path set the
+// index lives on disk and a restart resumes from the outbox offset of its last commit
+@Component
+public class ClientSearchIndex implements Closeable {
+    private static final int REBUILD_PAGE_SIZE = 5000;
+    private static final int FOLLOW_PAGE_SIZE = 1000;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final String OFFSET = "outboxOffset";
+
+    // indexed fields, the prefix and gram variants let a fragment match the start of a word or,
+    // for postal codes, any part of it
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String NAME_PREFIX = "namePrefix";
+    private static final String STREET = "street";
+    private static final String STREET_PREFIX = "streetPrefix";
+    private static final String POSTAL = "postal";
+
+    // stored client fields, a patch rewrites the document from these without loading the client
+    private static final List<String> STORED = List.of("firstName", "lastName", "address", "city",
+            "postalCode");
+
+    // whole words outrank prefixes, names outrank addresses
+    private static final Map<String, Float> BOOSTS = Map.of(NAME, 4f, NAME_PREFIX, 2f, STREET, 2f,
+            STREET_PREFIX, 1f, POSTAL, 3f);
+
+    // ties broken by id, so a page cursor is a single position
+    private static final Sort RANKED = new Sort(SortField.FIELD_SCORE,
+            new SortField(ID, SortField.Type.STRING));
+
+    public record Page(List<String> ids, String nextCursor) {
+    }
+
+    private final ClientRepository clients;
+    private final ClientEventRepository events;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final ClientMetrics metrics;
+    private final Duration rebuildRetryDelay;
+    private final boolean persistent;
+    private final Analyzer queryAnalyzer = analyzer(stream -> stream);
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+
+    // ids written since the last refresh, a patch of one of them has to see that write first
+    private final Set<String> unrefreshed = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+    // last outbox offset applied, negative until the index is loaded
+    private volatile long cursor = -1;
+
+    public ClientSearchIndex(ClientRepository clients, ClientEventRepository events, ObjectMapper objectMapper,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor, ClientMetrics metrics,
+            @Value("${client.search.rebuild-retry-delay:1s}") Duration rebuildRetryDelay,
+            @Value("${client.search.index-path:}") String indexPath) throws IOException {
+        this.clients = clients;
+        this.events = events;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.metrics = metrics;
+        this.rebuildRetryDelay = rebuildRetryDelay;
+        this.persistent = !indexPath.isBlank();
+        Directory directory = persistent ? FSDirectory.open(Path.of(indexPath)) : new ByteBuffersDirectory();
+
+        Analyzer prefixes = analyzer(stream -> new EdgeNGramTokenFilter(stream, 2, 20, true));
+        Analyzer grams = analyzer(stream -> new NGramTokenFilter(stream, 3, 12, true));
+        Analyzer indexAnalyzer = new PerFieldAnalyzerWrapper(queryAnalyzer,
+                Map.of(NAME_PREFIX, prefixes, STREET_PREFIX, prefixes, POSTAL, grams));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(indexAnalyzer));
+        this.searchers = new SearcherManager(writer, null);
+    }
+
+    // words split on punctuation and spaces, lowercased with accents folded to the base letter
+    private static Analyzer analyzer(UnaryOperator<TokenStream> grams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                return new TokenStreamComponents(source,
+                        grams.apply(new ASCIIFoldingFilter(new LowerCaseFilter(source))));
+            }
+        };
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // resumes or rebuilds off the event thread, retried until it succeeds
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        taskExecutor.execute(() -> IndexRebuildRetry.untilDone(this::load, rebuildRetryDelay,
+                () -> metrics.indexFailure("search", "rebuild")));
+    }
+
+    private void load() {
+        Map<String, String> committed = new HashMap<>();
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            commitData.forEach(entry -> committed.put(entry.getKey(), entry.getValue()));
+        }
+        // an offset past the end of the outbox means the index belongs to another database, one
+        // before the first event still in the outbox that the events it missed were purged
+        if (committed.containsKey(OFFSET)
+                && Long.parseLong(committed.get(OFFSET)) <= events.findLastPublishedOffset()
+                && Long.parseLong(committed.get(OFFSET)) >= events.findFirstPublishedOffset() - 1) {
+            cursor = Long.parseLong(committed.get(OFFSET));
+            ready = true;
+            return;
+        }
+        rebuild();
+    }
+
+    // scans the table in keyset pages. the cursor is taken first, events published during the
+    // scan are replayed on top of it
+    public void rebuild() {
+        long offset = events.findLastPublishedOffset();
+        try {
+            writer.deleteAll();
+            List<Client> page;
+            String after = null;
+            do {
+                String from = after;
+                page = clients.findBy(Specification.allOf(ClientSpecifications.idAfter(from)),
+                        query -> query.sortBy(org.springframework.data.domain.Sort.by("id"))
+                                .limit(REBUILD_PAGE_SIZE).all());
+                for (Client client : page) {
+                    put(client);
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            advance(offset);
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to rebuild the client search index", e);
+        }
+        ready = true;
+    }
+
+    // applies published events, then makes everything written so far searchable
+    @Scheduled(fixedDelayString = "${client.search.refresh-interval-ms:1000}")
+    public void follow() throws IOException {
+        if (cursor < 0) {
+            return;
+        }
+        List<ClientEvent> page;
+        boolean applied = false;
+        do {
+            page = events.findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(cursor,
+                    Limit.of(FOLLOW_PAGE_SIZE));
+            for (ClientEvent event : page) {
+                apply(event);
+            }
+            if (!page.isEmpty()) {
+                advance(page.get(page.size() - 1).getPublishedOffset());
+                applied = true;
+            }
+        } while (page.size() == FOLLOW_PAGE_SIZE);
+        if (applied && persistent) {
+            writer.commit();
+        }
+        refresh();
+    }
+
+    // the index only learns about a write once it has committed, a rolled back one never shows up
+    public void putAfterCommit(List<Client> written) {
+        afterCommit(() -> {
+            for (Client client : written) {
+                put(client);
+            }
+        });
+    }
+
+    public void patchAfterCommit(Set<String> ids, Map<String, Object> values) {
+        afterCommit(() -> {
+            for (String id : ids) {
+                patch(id, values);
+            }
+        });
+    }
+
+    public void removeAfterCommit(String id) {
+        afterCommit(() -> remove(id));
+    }
+
+    // every word of the text has to match some field, documents matching more and rarer words
+    // rank first. after is the nextCursor of the previous page
+    public Page search(String text, String after, int limit) {
+        Query query = query(text);
+        Object[] from = after == null ? null : fromCursor(after);
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                int maxDoc = searcher.getIndexReader().maxDoc();
+                // the highest document number, so that the last hit never ties with itself on it
+                FieldDoc last = from == null || maxDoc == 0 ? null : new FieldDoc(maxDoc - 1, Float.NaN, from);
+                TopDocs top = searcher.searchAfter(last, query, limit + 1, RANKED, true);
+                List<String> ids = new ArrayList<>(Math.min(top.scoreDocs.length, limit));
+                for (int i = 0; i < Math.min(top.scoreDocs.length, limit); i++) {
+                    ids.add(searcher.storedFields().document(top.scoreDocs[i].doc, Set.of(ID)).get(ID));
+                }
+                String next = top.scoreDocs.length > limit
+                        ? toCursor((FieldDoc) top.scoreDocs[limit - 1])
+                        : null;
+                return new Page(ids, next);
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to search clients", e);
+        }
+    }
+
+    private Query query(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        try (TokenStream tokens = queryAnalyzer.tokenStream(NAME, text == null ? "" : text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && words.size() < MAX_QUERY_TERMS) {
+                // single characters would match a large share of the prefixes
+                if (term.length() > 1) {
+                    words.add(term.toString());
+                }
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("search text needs a word of at least two letters or digits");
+        }
+
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        for (String word : words) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            BOOSTS.forEach((field, boost) -> anyField.add(
+                    new BoostQuery(new TermQuery(new Term(field, word)), boost), BooleanClause.Occur.SHOULD));
+            all.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return all.build();
+    }
+
+    // score bits and client id of the last hit, exact so that the next page starts right after it
+    private static String toCursor(FieldDoc last) {
+        return Integer.toHexString(Float.floatToIntBits((Float) last.fields[0])) + ":"
+                + ((BytesRef) last.fields[1]).utf8ToString();
+    }
+
+    private static Object[] fromCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            float score = Float.intBitsToFloat(Integer.parseUnsignedInt(cursor.substring(0, separator), 16));
+            return new Object[] { score, new BytesRef(cursor.substring(separator + 1)) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid search cursor");
+        }
+    }
+
+    private void apply(ClientEvent event) throws IOException {
+        if (event.getType() == ClientEvent.Type.DELETED) {
+            remove(event.getClientId());
+            return;
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            if (payload.has(ClientFieldAccessor.ID_FIELD)) {
+                put(objectMapper.treeToValue(payload, Client.class));
+            } else {
+                // a bulk patch event, only the patched fields
+                patch(event.getClientId(), objectMapper.convertValue(payload,
+                        objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class)));
+            }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // written by ClientOutbox, so this is not expected. skipping keeps the index following
+            // the rest of the stream, the document is corrected by the client's next write
+            metrics.indexFailure("search", "apply");
+        }
+    }
+
+    private void put(Client client) throws IOException {
+        write(client.getId(), List.of(nullToEmpty(client.getFirstName()), nullToEmpty(client.getLastName()),
+                nullToEmpty(client.getAddress()), nullToEmpty(client.getCity()),
+                nullToEmpty(client.getPostalCode())));
+    }
+
+    private void patch(String id, Map<String, Object> values) throws IOException {
+        if (STORED.stream().noneMatch(values::containsKey)) {
+            return;
+        }
+        if (unrefreshed.contains(id)) {
+            refresh();
+        }
+        IndexSearcher searcher = searchers.acquire();
+        List<String> fields = new ArrayList<>(STORED.size());
+        try {
+            TopDocs found = searcher.search(new TermQuery(new Term(ID, id)), 1);
+            if (found.scoreDocs.length == 0) {
+                return;
+            }
+            Document stored = searcher.storedFields().document(found.scoreDocs[0].doc);
+            for (String field : STORED) {
+                Object value = values.containsKey(field) ? values.get(field) : stored.get(field);
+                fields.add(value == null ? "" : value.toString());
+            }
+        } finally {
+            searchers.release(searcher);
+        }
+        write(id, fields);
+    }
+
+    // fields in STORED order
+    private void write(String id, List<String> fields) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID, id, Field.Store.YES));
+        document.add(new SortedDocValuesField(ID, new BytesRef(id)));
+        for (int i = 0; i < STORED.size(); i++) {
+            document.add(new StoredField(STORED.get(i), fields.get(i)));
+        }
+        String name = fields.get(0) + " " + fields.get(1);
+        String street = fields.get(2) + " " + fields.get(3);
+        document.add(new TextField(NAME, name, Field.Store.NO));
+        document.add(new TextField(NAME_PREFIX, name, Field.Store.NO));
+        document.add(new TextField(STREET, street, Field.Store.NO));
+        document.add(new TextField(STREET_PREFIX, street, Field.Store.NO));
+        document.add(new TextField(POSTAL, fields.get(4), Field.Store.NO));
+        writer.updateDocument(new Term(ID, id), document);
+        unrefreshed.add(id);
+    }
+
+    private void remove(String id) throws IOException {
+        writer.deleteDocuments(new Term(ID, id));
+        unrefreshed.add(id);
+    }
+
+    private void advance(long offset) {
+        cursor = offset;
+        // committed along with the documents, so the offset never runs ahead of what is on disk
+        writer.setLiveCommitData(Map.of(OFFSET, Long.toString(offset)).entrySet());
+    }
+
+    private void refresh() throws IOException {
+        unrefreshed.clear();
+        searchers.maybeRefreshBlocking();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private void afterCommit(IndexAction action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    run(action);
+                }
+            });
+        } else {
+            run(action);
+        }
+    }
+
+    // the write itself has committed and must not be reported as failed, a document missed here
+    // is restored when its event is replayed. counted, there is nothing to undo
+    private void run(IndexAction action) {
+        try {
+            action.run();
+        } catch (IOException | RuntimeException e) {
+            metrics.indexFailure("search", "write");
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+
+    @Override
+    public void close() throws IOException {
+        searchers.close();
+        // an in-memory index is thrown away, an on-disk one keeps the last offset applied
+        if (persistent) {
+            writer.close();
+        } else {
+            writer.rollback();
+        }
+    }
+}
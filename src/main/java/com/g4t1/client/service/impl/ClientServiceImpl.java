@@ -1,149 +1,716 @@
 package com.g4t1.client.service.impl;
 
-import java.lang.reflect.Field;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
+import com.g4t1.client.dto.ClientBatchResult;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientBulkPatchResult;
+import com.g4t1.client.dto.ClientLookup;
+import com.g4t1.client.dto.ClientMatch;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.dto.ClientSearchCriteria;
 import com.g4t1.client.entity.Client;
+import com.g4t1.client.exceptions.ClientDuplicateException;
+import com.g4t1.client.exceptions.ClientMatchIndexNotReadyException;
 import com.g4t1.client.exceptions.ClientNotFoundException;
+import com.g4t1.client.exceptions.ClientPreconditionFailedException;
+import com.g4t1.client.exceptions.ClientSearchIndexNotReadyException;
+import com.g4t1.client.exceptions.ClientVersionConflictException;
 import com.g4t1.client.exceptions.InvalidClientSourceDataException;
+import com.g4t1.client.repository.ClientBatchRepository;
 import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.repository.ClientSpecifications;
+import com.g4t1.client.service.ClientIdGenerator;
 import com.g4t1.client.service.ClientService;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
+// every public operation is timed as client.service{class,method}, repository calls are timed
+// separately as spring.data.repository.invocations
 @Service
+@Timed("client.service")
 public class ClientServiceImpl implements ClientService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_MATCH_LIMIT = 10;
+    private static final int MAX_MATCH_LIMIT = 50;
+
+    // how updateClient guards against concurrent writers
+    public enum LockingMode {
+        OPTIMISTIC, PESSIMISTIC
+    }
+
     private final ClientRepository clients;
+    private final ClientBatchRepository batchClients;
+    private final Validator validator;
+    private final ClientCache clientCache;
+    private final ClientIdGenerator idGenerator;
+    private final ClientMetrics metrics;
+    private final ClientOutbox outbox;
+    private final ClientReadRouting readRouting;
+    private final ClientDatabaseHealthIndicator databaseHealth;
+    private final ClientMatchIndex matchIndex;
+    private final ClientSearchIndex searchIndex;
+    private final ClientUpdateLog updateLog;
+    private final TransactionTemplate transactionTemplate;
+    private final LockingMode lockingMode;
+    private final int maxUpdateRetries;
+    private final int patchChunkSize;
+    private final int maxLookupIds;
+    private final int flushBatchSize;
+    // held by a synchronous update of a client with queued write-behind fields from reading them
+    // until they are dropped, by queueUpdate while it appends, and by the flush around each batch,
+    // so that a flush never applies queued fields that an update already folded in and committed.
+    // an update of a client with nothing queued takes none and folds in nothing
+    private final ClientLocks writeBehindLocks = new ClientLocks();
 
-    public ClientServiceImpl(ClientRepository clients) {
+    public ClientServiceImpl(ClientRepository clients, ClientBatchRepository batchClients,
+            Validator validator, ClientCache clientCache, ClientIdGenerator idGenerator,
+            ClientMetrics metrics, ClientOutbox outbox, ClientReadRouting readRouting,
+            ClientDatabaseHealthIndicator databaseHealth, ClientMatchIndex matchIndex,
+            ClientSearchIndex searchIndex, ClientUpdateLog updateLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${client.update.locking:optimistic}") String lockingMode,
+            @Value("${client.update.max-retries:3}") int maxUpdateRetries,
+            @Value("${client.patch.chunk-size:1000}") int patchChunkSize,
+            @Value("${client.lookup.max-ids:100}") int maxLookupIds,
+            @Value("${client.update.write-behind.batch-size:50}") int flushBatchSize) {
         this.clients = clients;
+        this.batchClients = batchClients;
+        this.validator = validator;
+        this.clientCache = clientCache;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
+        this.outbox = outbox;
+        this.readRouting = readRouting;
+        this.databaseHealth = databaseHealth;
+        this.matchIndex = matchIndex;
+        this.searchIndex = searchIndex;
+        this.updateLog = updateLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockingMode = LockingMode.valueOf(lockingMode.toUpperCase());
+        this.maxUpdateRetries = maxUpdateRetries;
+        this.patchChunkSize = patchChunkSize;
+        this.maxLookupIds = maxLookupIds;
+        this.flushBatchSize = flushBatchSize;
     }
 
     @Override
     public boolean validateSourceData(Client source, boolean create) {
-        if (source == null) {
-            return false;
-        }
-
-        try {
-            for (Field field : Client.class.getDeclaredFields()) {
-                field.setAccessible(true);
-                Object fieldValue = field.get(source);
-                String fieldName = field.getName();
-
-                // id should always be null for both create and update operations
-                if (fieldName.equals("id") && fieldValue != null) {
-                    return false;
-                }
-                // in a create request: all non-id fields must be non-null
-                if (create && !fieldName.equals("id") && fieldValue == null) {
-                    return false;
-                }
-            }
-            return true;
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("reflection error during validation", e);
-        }
+        return ClientFieldAccessor.validate(source, create);
     }
 
+    // existence is not checked here, each operation finds out from its own single query
     @Override
-    public boolean validateClient(String targetId) {
+    public boolean validateClientId(String targetId) {
         if (!StringUtils.hasText(targetId)) {
             throw new IllegalArgumentException("client id must not be blank");
         }
 
-        if (!clients.existsById(targetId)) {
-            throw new ClientNotFoundException();
-        }
-
         return true;
     }
 
     @Override
     public Client createClient(Client clientData) {
+        return createClient(clientData, false);
+    }
+
+    @Override
+    public Client createClient(Client clientData, boolean allowDuplicates) {
 
         // if client data is null or id field has a UUID, reject
         if (!validateSourceData(clientData, true)) {
             throw new InvalidClientSourceDataException();
         }
+        ClientFieldAccessor.applyCreateDefaults(clientData);
+
+        // advisory, two near-identical creates racing each other can both get through
+        if (!allowDuplicates) {
+            List<ClientMatch> duplicates = load(matchIndex.duplicates(clientData));
+            if (!duplicates.isEmpty()) {
+                throw new ClientDuplicateException(duplicates);
+            }
+        }
 
         try {
-            String id = UUID.randomUUID().toString();
+            String id = idGenerator.nextId();
             clientData.setId(id);
-            return clients.save(clientData);
+            return transactionTemplate.execute(status -> {
+                Client saved = clients.save(clientData);
+                outbox.created(List.of(saved));
+                readRouting.wrote(saved.getId());
+                matchIndex.putAfterCommit(List.of(saved));
+                searchIndex.putAfterCommit(List.of(saved));
+                return saved;
+            });
         } catch (Exception e) { // catch any repo runtime error
             throw new RuntimeException("failed to create and save client", e);
         }
     }
 
-    // TODO: verify client method + endpoint
+    @Override
+    public List<ClientBatchResult> createClients(List<Client> clientData) {
+        if (clientData == null || clientData.isEmpty()) {
+            throw new IllegalArgumentException("client batch must not be empty");
+        }
 
+        // validate every item up front, rejected items are reported and never reach the database
+        List<ClientBatchResult> results = new ArrayList<>(clientData.size());
+        List<Client> accepted = new ArrayList<>(clientData.size());
+        for (int i = 0; i < clientData.size(); i++) {
+            Client client = clientData.get(i);
+            String error = checkBatchItem(client);
+            if (error != null) {
+                results.add(ClientBatchResult.rejected(i, error));
+                continue;
+            }
+            ClientFieldAccessor.applyCreateDefaults(client);
+            client.setId(idGenerator.nextId());
+            client.setVersion(0L);
+            accepted.add(client);
+            results.add(null);
+        }
+
+        Set<String> failedIds = accepted.isEmpty() ? Set.of()
+                : new HashSet<>(batchClients.insertAll(accepted, chunk -> {
+                    outbox.created(chunk);
+                    readRouting.wrote(chunk.stream().map(Client::getId).toList());
+                    matchIndex.putAfterCommit(chunk);
+                    searchIndex.putAfterCommit(chunk);
+                }));
+
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            String id = clientData.get(i).getId();
+            results.set(i, failedIds.contains(id)
+                    ? ClientBatchResult.failed(i, "failed to save client")
+                    : ClientBatchResult.created(i, id));
+        }
+        return results;
+    }
+
+    private String checkBatchItem(Client client) {
+        if (!validateSourceData(client, true)) {
+            return new InvalidClientSourceDataException().getMessage();
+        }
+
+        Set<ConstraintViolation<Client>> violations = validator.validate(client);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    // PUT /api/clients/{id}: a partial update, fields left null or blank in the source keep their
+    // stored values, and a client the source does not change is not written
     @Override
-    @Transactional
     public Client updateClient(String id, Client source) {
+        return updateClient(id, source, null);
+    }
+
+    @Override
+    public Client updateClient(String id, Client source, Set<Long> expectedVersions) {
 
-        validateClient(id);
+        validateClientId(id);
         if (!validateSourceData(source, false)) {
             throw new InvalidClientSourceDataException();
         }
+        if (updateLog.queued(id) == null) {
+            return update(id, source, expectedVersions, null);
+        }
+        // a write-behind update still queued for the client is older than this one, so it is
+        // applied underneath it in the same transaction and then dropped from the queue. read
+        // again under the lock, a flush may have taken it since
+        return writeBehindLocks.locked(List.of(id),
+                () -> update(id, source, expectedVersions, updateLog.queued(id)));
+    }
 
-        // Use pessimistic locking to avoid concurrent updates
-        Client target = clients.findByIdWithLocking(id).orElseThrow(ClientNotFoundException::new);
+    private Client update(String id, Client source, Set<Long> expectedVersions, Client queued) {
+        if (lockingMode == LockingMode.PESSIMISTIC) {
+            // row lock is held from the select until commit, concurrent writers queue on it
+            Client updated = transactionTemplate.execute(
+                    status -> applyUpdate(clients.findByIdWithLocking(id), queued, source, expectedVersions));
+            appliedQueued(id, queued);
+            return updated;
+        }
 
-        try {
-            for (Field field : Client.class.getDeclaredFields()) {
-                field.setAccessible(true);
-                String fieldName = field.getName();
-                if ("id".equals(fieldName))
-                    continue; // never update id
-
-                Object value = field.get(source);
-                if (value == null)
-                    continue;
-
-                // For Strings, only update if not blank
-                if (value instanceof String && !StringUtils.hasText((String) value))
-                    continue;
-                field.set(target, value);
+        // optimistic: plain select, the version check happens in the UPDATE statement
+        for (int attempt = 0;; attempt++) {
+            try {
+                Client updated = transactionTemplate.execute(
+                        status -> applyUpdate(clients.findById(id), queued, source, expectedVersions));
+                appliedQueued(id, queued);
+                return updated;
+            } catch (OptimisticLockingFailureException e) {
+                // a conditional request is never retried, the caller's precondition no longer holds
+                if (expectedVersions != null) {
+                    throw new ClientPreconditionFailedException();
+                }
+                // unconditional partial updates are safe to re-apply on top of the newer row
+                if (attempt >= maxUpdateRetries) {
+                    throw new ClientVersionConflictException();
+                }
+            }
+        }
+    }
+
+    private Client applyUpdate(Optional<Client> found, Client queued, Client source,
+            Set<Long> expectedVersions) {
+        Client target = found.orElseThrow(ClientNotFoundException::new);
+        if (expectedVersions != null
+                && (target.getVersion() == null || !expectedVersions.contains(target.getVersion()))) {
+            throw new ClientPreconditionFailedException();
+        }
+
+        boolean changed = metrics.mergeTimer().record(() -> queued != null
+                ? ClientFieldAccessor.merge(queued, target) | ClientFieldAccessor.merge(source, target)
+                : ClientFieldAccessor.merge(source, target));
+        if (!changed) {
+            // nothing to write, the stored row, its version and any cached copy are still current
+            metrics.noopUpdate();
+            return target;
+        }
+        // @DynamicUpdate limits the UPDATE to the columns merge changed
+        Client saved = clients.saveAndFlush(target);
+        updated(List.of(saved));
+        return saved;
+    }
+
+    private void appliedQueued(String id, Client queued) {
+        if (queued != null) {
+            updateLog.applied(id, queued);
+        }
+    }
+
+    // runs inside the transaction that saved the clients
+    private void updated(List<Client> saved) {
+        List<String> ids = saved.stream().map(Client::getId).toList();
+        saved.forEach(outbox::updated);
+        readRouting.wrote(ids);
+        matchIndex.putAfterCommit(saved);
+        searchIndex.putAfterCommit(saved);
+        ids.forEach(clientCache::evict);
+    }
+
+    // acknowledged once the update is in the local update log, the database is updated by the
+    // next flush. a missing client is refused now, since its update could never be flushed
+    @Override
+    public Client queueUpdate(String id, Client source) {
+        validateClientId(id);
+        if (!validateSourceData(source, false)) {
+            throw new InvalidClientSourceDataException();
+        }
+        if (!updateLog.isEnabled()) {
+            throw new IllegalStateException("write-behind updates are not enabled");
+        }
+
+        Client stored = findClient(id);
+        return overlay(stored, writeBehindLocks.locked(List.of(id), () -> updateLog.append(id, source)));
+    }
+
+    // applies every queued update, a batch per transaction. a batch that fails is retried client
+    // by client so that one conflict does not hold back the rest, whatever still fails stays
+    // queued for the next run. runs whether or not write-behind is enabled, so updates replayed
+    // from the log after it was turned off still reach the database
+    @Scheduled(fixedDelayString = "${client.update.write-behind.flush-interval-ms:200}")
+    public void flushQueuedUpdates() {
+        List<ClientUpdateLog.Queued> queued = updateLog.beginFlush();
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        List<ClientUpdateLog.Queued> flushed = new ArrayList<>(queued.size());
+        List<ClientUpdateLog.Queued> failed = new ArrayList<>();
+        for (int from = 0; from < queued.size(); from += flushBatchSize) {
+            List<ClientUpdateLog.Queued> batch = queued.subList(from,
+                    Math.min(from + flushBatchSize, queued.size()));
+            try {
+                flushLocked(batch);
+                flushed.addAll(batch);
+            } catch (RuntimeException e) {
+                for (ClientUpdateLog.Queued update : batch) {
+                    try {
+                        flushLocked(List.of(update));
+                        flushed.add(update);
+                    } catch (RuntimeException single) {
+                        failed.add(update);
+                    }
+                }
+            }
+        }
+        updateLog.endFlush(flushed, failed);
+    }
+
+    private void flushLocked(List<ClientUpdateLog.Queued> batch) {
+        writeBehindLocks.locked(batch.stream().map(ClientUpdateLog.Queued::id).toList(), () -> {
+            transactionTemplate.executeWithoutResult(status -> flushBatch(batch));
+            return null;
+        });
+    }
+
+    // a client deleted since its update was queued has nothing left to update. an update no
+    // longer queued as taken by beginFlush was folded into a synchronous update, or coalesced
+    // into a newer one that the next flush applies, and is left out
+    private void flushBatch(List<ClientUpdateLog.Queued> batch) {
+        List<ClientUpdateLog.Queued> current = batch.stream().filter(updateLog::isQueued).toList();
+        if (current.isEmpty()) {
+            return;
+        }
+        List<String> ids = current.stream().map(ClientUpdateLog.Queued::id).toList();
+        Map<String, Client> found = clients.findAllById(ids).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        List<Client> changed = new ArrayList<>(current.size());
+        for (ClientUpdateLog.Queued update : current) {
+            Client target = found.get(update.id());
+            if (target != null && ClientFieldAccessor.merge(update.fields(), target)) {
+                changed.add(target);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        updated(clients.saveAllAndFlush(changed));
+    }
+
+    @Override
+    public ClientBulkPatchResult patchClients(ClientBulkPatch patch) {
+        if (patch == null || patch.getSet() == null || patch.getSet().isEmpty()) {
+            throw new IllegalArgumentException("patch must set at least one field");
+        }
+        Map<String, Object> values = ClientFieldAccessor.coerce(patch.getSet());
+        values.forEach((field, value) -> {
+            Set<ConstraintViolation<Client>> violations = validator.validateValue(Client.class, field, value);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(field + " " + violations.iterator().next().getMessage());
+            }
+        });
+
+        boolean byIds = patch.getIds() != null;
+        if (byIds == (patch.getFilter() != null)) {
+            throw new IllegalArgumentException("patch must target either ids or a filter");
+        }
+        return byIds ? patchByIds(patch.getIds(), values) : patchByFilter(patch.getFilter(), values);
+    }
+
+    private ClientBulkPatchResult patchByIds(List<String> ids, Map<String, Object> values) {
+        List<String> distinct = ids.stream().filter(StringUtils::hasText).distinct().toList();
+        long updated = 0;
+        int chunks = 0;
+        for (int from = 0; from < distinct.size(); from += patchChunkSize) {
+            List<String> chunk = distinct.subList(from, Math.min(from + patchChunkSize, distinct.size()));
+            updated += patchChunk(ClientSpecifications.idIn(chunk), chunk.size(), values).size();
+            chunks++;
+        }
+        return new ClientBulkPatchResult(updated, chunks);
+    }
+
+    // walks the matching ids in keyset order so each chunk is one bounded locking select and one update
+    private ClientBulkPatchResult patchByFilter(ClientSearchCriteria filter, Map<String, Object> values) {
+        // an empty filter would patch every client, that has to be asked for by listing ids
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("filter must name at least one field");
+        }
+        Specification<Client> spec = ClientSpecifications.matching(filter);
+
+        long updated = 0;
+        int chunks = 0;
+        String after = null;
+        while (true) {
+            List<String> chunk = patchChunk(Specification.allOf(spec, ClientSpecifications.idAfter(after)),
+                    patchChunkSize, values);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            updated += chunk.size();
+            chunks++;
+            if (chunk.size() < patchChunkSize) {
+                break;
             }
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("failed to update client fields via reflection", e);
+            after = chunk.get(chunk.size() - 1);
         }
-        return clients.save(target);
+        return new ClientBulkPatchResult(updated, chunks);
+    }
+
+    // locks the chunk first so the versions read are exactly the ones the update bumps, the
+    // outbox then records one event per patched client. returns the patched ids in id order
+    private List<String> patchChunk(Specification<Client> target, int limit, Map<String, Object> values) {
+        return transactionTemplate.execute(status -> {
+            Map<String, Long> versions = clients.lockVersions(target, limit);
+            if (versions.isEmpty()) {
+                return List.<String>of();
+            }
+            clients.updateFields(versions.keySet(), values);
+            outbox.patched(versions, values);
+            readRouting.wrote(versions.keySet());
+            matchIndex.patchAfterCommit(versions, values);
+            searchIndex.patchAfterCommit(versions.keySet(), values);
+            versions.keySet().forEach(clientCache::evict);
+            return List.copyOf(versions.keySet());
+        });
     }
 
     @Override
     public Client getClient(String id) {
-        validateClient(id);
+        validateClientId(id);
+        return withQueued(findClient(id));
+    }
+
+    // the version, which every write bumps. a client shown with queued write-behind fields still
+    // carries the stored version, so its tag also hashes the fields it is shown with
+    @Override
+    public String entityTag(Client client) {
+        String version = String.valueOf(client.getVersion());
+        if (updateLog.queued(client.getId()) == null) {
+            return version;
+        }
+        return version + "-" + Integer.toHexString(ClientFieldAccessor.hash(client));
+    }
+
+    // writes evict the cached copy before they commit, so its version is the current one
+    @Override
+    public String cachedEntityTag(String id) {
+        validateClientId(id);
+        Client cached = clientCache.get(id);
+        if (cached == null || updateLog.queued(id) != null) {
+            return null;
+        }
+        return String.valueOf(cached.getVersion());
+    }
+
+    private Client findClient(String id) {
+        // a cache hit answers without touching the database
+        Client cached = clientCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = clientCache.generation(id);
+        Optional<Client> found;
         try {
-            return clients.findById(id).get();
+            found = readRouting.read(id, () -> clients.findById(id));
         } catch (Exception e) { // catch any repo runtime error
             throw new RuntimeException("failed to retrieve client", e);
         }
+
+        Client client = found.orElseThrow(ClientNotFoundException::new);
+        clientCache.put(client, generation);
+        return client;
+    }
+
+    // cached clients are answered from the cache, the rest with one IN query
+    @Override
+    public ClientLookup getClients(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("client ids must not be empty");
+        }
+        List<String> distinct = ids.stream().distinct().toList();
+        if (distinct.size() > maxLookupIds) {
+            throw new IllegalArgumentException("at most " + maxLookupIds + " client ids per lookup");
+        }
+        distinct.forEach(this::validateClientId);
+
+        Map<String, Client> found = new LinkedHashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String id : distinct) {
+            Client cached = clientCache.get(id);
+            found.put(id, cached);
+            if (cached == null) {
+                uncached.add(id);
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            Map<String, Long> generations = new HashMap<>();
+            uncached.forEach(id -> generations.put(id, clientCache.generation(id)));
+            List<Client> loaded;
+            try {
+                loaded = readRouting.read(uncached, () -> clients.findAllById(uncached));
+            } catch (Exception e) { // catch any repo runtime error
+                throw new RuntimeException("failed to retrieve clients", e);
+            }
+            for (Client client : loaded) {
+                found.put(client.getId(), client);
+                clientCache.put(client, generations.get(client.getId()));
+            }
+        }
+        found.replaceAll((id, client) -> client == null ? null : withQueued(client));
+
+        List<String> missing = new ArrayList<>();
+        found.entrySet().removeIf(entry -> {
+            if (entry.getValue() == null) {
+                missing.add(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+        return new ClientLookup(found, missing);
+    }
+
+    @Override
+    public ClientPage searchClients(ClientSearchCriteria criteria, String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("page size must be positive");
+        }
+
+        Specification<Client> spec = Specification.allOf(
+                ClientSpecifications.matching(criteria == null ? new ClientSearchCriteria() : criteria),
+                ClientSpecifications.idAfter(StringUtils.hasText(after) ? after : null));
+
+        // one extra row tells whether another page exists without running a count query
+        List<Client> rows = readRouting.read(() -> clients.findBy(spec,
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all()))
+                .stream()
+                .map(this::withQueued)
+                .toList();
+
+        if (rows.size() <= pageSize) {
+            return new ClientPage(rows, null);
+        }
+        List<Client> page = rows.subList(0, pageSize);
+        return new ClientPage(page, page.get(pageSize - 1).getId());
+    }
+
+    @Override
+    public ClientPage searchClientsByText(String text, String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("page size must be positive");
+        }
+        if (!StringUtils.hasText(text)) {
+            throw new IllegalArgumentException("search text must not be blank");
+        }
+        if (!searchIndex.isReady()) {
+            throw new ClientSearchIndexNotReadyException();
+        }
+
+        ClientSearchIndex.Page page = searchIndex.search(text, StringUtils.hasText(after) ? after : null,
+                pageSize);
+        return new ClientPage(findAllInOrder(page.ids()).stream().map(this::withQueued).toList(),
+                page.nextCursor());
+    }
+
+    @Override
+    public List<ClientMatch> findMatches(Client probe, Integer limit) {
+        int maxMatches = limit == null ? DEFAULT_MATCH_LIMIT : Math.min(limit, MAX_MATCH_LIMIT);
+        if (maxMatches < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (probe == null) {
+            throw new IllegalArgumentException("match probe must not be empty");
+        }
+        ClientMatchKeys keys = ClientMatchKeys.of(probe);
+        if (keys.keys().length == 0) {
+            throw new IllegalArgumentException("match probe needs a full name, an email address or a phone number");
+        }
+        // an index still loading would answer with a silently incomplete list
+        if (!matchIndex.isReady()) {
+            throw new ClientMatchIndexNotReadyException();
+        }
+        return load(matchIndex.match(keys, maxMatches));
+    }
+
+    // reads show queued write-behind updates on top of the stored client, the version stays the
+    // stored one until they are flushed. filters and rankings still see only the stored fields
+    private Client withQueued(Client stored) {
+        Client queued = updateLog.queued(stored.getId());
+        return queued == null ? stored : overlay(stored, queued);
+    }
+
+    // on a copy, the stored client may be a managed entity
+    private static Client overlay(Client stored, Client queued) {
+        Client merged = ClientFieldAccessor.copy(stored);
+        ClientFieldAccessor.merge(queued, merged);
+        return merged;
+    }
+
+    private List<ClientMatch> load(List<ClientMatchIndex.Candidate> candidates) {
+        Map<String, Client> found = findAllById(
+                candidates.stream().map(ClientMatchIndex.Candidate::id).toList());
+        return candidates.stream()
+                .filter(candidate -> found.containsKey(candidate.id()))
+                .map(candidate -> new ClientMatch(found.get(candidate.id()), candidate.score(),
+                        candidate.matchedOn()))
+                .toList();
+    }
+
+    private List<Client> findAllInOrder(List<String> ids) {
+        Map<String, Client> found = findAllById(ids);
+        return ids.stream().filter(found::containsKey).map(found::get).toList();
+    }
+
+    // one query for ids an index returned, a client deleted since it was indexed is left out
+    private Map<String, Client> findAllById(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return readRouting.read(() -> clients.findAllById(ids)).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
     }
 
     @Override
     public boolean deleteClient(String id) {
-        validateClient(id);
-        try {
-            clients.deleteById(id);
-            return true;
-        } catch (Exception e) { // catch any repo runtime error
-            throw new RuntimeException("failed to delete client", e);
+        validateClientId(id);
+
+        int deleted;
+        for (int attempt = 0;; attempt++) {
+            try {
+                deleted = transactionTemplate.execute(status -> {
+                    int rows = clients.deleteClientById(id);
+                    if (rows > 0) {
+                        outbox.deleted(id);
+                        readRouting.wrote(id);
+                        matchIndex.removeAfterCommit(id);
+                        searchIndex.removeAfterCommit(id);
+                    }
+                    return rows;
+                });
+                break;
+            } catch (OptimisticLockingFailureException e) {
+                // removed by version from the second-level cache while an update committed,
+                // the next attempt finds the newer row
+                if (attempt >= maxUpdateRetries) {
+                    throw new ClientVersionConflictException();
+                }
+            } catch (Exception e) { // catch any repo runtime error
+                throw new RuntimeException("failed to delete client", e);
+            }
+        }
+
+        if (deleted == 0) {
+            throw new ClientNotFoundException();
         }
+        clientCache.evict(id);
+        updateLog.discard(id);
+        return true;
     }
 
+    // answered from the cached connection check, a probe never runs a query
     @Override
     public boolean healthCheck() { // for aws ecs/elb
-        try {
-            // test database connectivity by executing a simple query
-            // will throw an exception if the database is not accessible
-            clients.count();
-            return true;
-        } catch (Exception e) {
-            // log the exception for debugging purposes
-            System.err.println("Health check failed: " + e.getMessage());
-            return false;
-        }
+        return databaseHealth.isUp();
     }
 }
@@ -0,0 +1,362 @@
+package com.g4t1.client.service.impl;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.entity.Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// durable queue behind write-behind updates. an update is acknowledged once it is synced to the
+// current segment file, updates of the same client are coalesced in memory until the service
+// flushes them. each flush starts a new segment and deletes the older ones once it is done, so
+// the log only ever holds what has not reached the database. segments left by a crash are
+// replayed on startup, also with write-behind since disabled, so no acknowledged update is lost.
+// concurrent appends are synced together: whoever finds no sync under way writes and syncs
+// everything gathered so far in one go, the others wait for it (group commit)
+@Component
+public class ClientUpdateLog {
+    private static final Pattern SEGMENT = Pattern.compile("updates-(\\d+)\\.log");
+
+    // the fields of an update, id and version unset. replaced on every coalesce, never mutated
+    public record Queued(String id, Client fields) {
+    }
+
+    // one line of a segment, no fields means the client's queued update was dropped
+    private record Entry(String id, Client fields) {
+    }
+
+    // an entry waiting for its sync and what it changes in queued once synced, null for nothing
+    private record Pending(Entry entry, Runnable publish) {
+    }
+
+    // entries synced together, done once the sync has succeeded or failed
+    private static final class Batch {
+        private final List<Pending> entries = new ArrayList<>();
+        private boolean done;
+        private RuntimeException failure;
+    }
+
+    private final Path directory;
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Counter syncs;
+    // synced updates, what reads and the flush see
+    private final Map<String, Queued> queued = new ConcurrentHashMap<>();
+
+    // the fields below are guarded by lock. latest is queued plus the updates still waiting for
+    // their sync, the next append coalesces onto it. the segment file is only touched by the
+    // writer holding the writing flag, with the lock released while it syncs
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Map<String, Queued> latest = new HashMap<>();
+    private Batch filling = new Batch();
+    private boolean writing;
+    private long segment;
+    private FileOutputStream out;
+
+    public ClientUpdateLog(@Value("${client.update.write-behind.log-dir:data/write-behind}") String directory,
+            @Value("${client.update.write-behind.enabled:false}") boolean enabled, ObjectMapper objectMapper,
+            MeterRegistry registry) throws IOException {
+        this.directory = Path.of(directory);
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        replay();
+        latest.putAll(queued);
+        Gauge.builder("client.update.queued", queued, Map::size)
+                .description("clients with write-behind updates not yet flushed to the database")
+                .register(registry);
+        this.syncs = Counter.builder("client.update.log.syncs")
+                .description("writes synced to the update log, each covering every append gathered meanwhile")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // returns once the update is on disk, with the client's queued fields after coalescing
+    public Client append(String id, Client update) {
+        if (!enabled) {
+            throw new IllegalStateException("write-behind updates are not enabled");
+        }
+        lock.lock();
+        try {
+            Queued coalesced = new Queued(id, coalesce(latest.get(id), update));
+            latest.put(id, coalesced);
+            commit(List.of(new Pending(new Entry(id, update), () -> queued.put(id, coalesced))));
+            return coalesced.fields();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Client queued(String id) {
+        Queued entry = queued.get(id);
+        return entry == null ? null : entry.fields();
+    }
+
+    // whether the entry, as handed out by beginFlush, is still the client's queued update
+    public boolean isQueued(Queued entry) {
+        return queued.get(entry.id()) == entry;
+    }
+
+    // everything queued so far, later appends go to a new segment
+    public List<Queued> beginFlush() {
+        lock.lock();
+        try {
+            awaitIdle();
+            if (queued.isEmpty()) {
+                return List.of();
+            }
+            roll();
+            return List.copyOf(queued.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // failed updates that are still queued are written again, then the segments older than the
+    // current one hold nothing that is not in the database and are deleted
+    public void endFlush(Collection<Queued> flushed, Collection<Queued> failed) {
+        lock.lock();
+        try {
+            for (Queued entry : flushed) {
+                queued.remove(entry.id(), entry);
+                latest.remove(entry.id(), entry);
+            }
+            List<Pending> retained = new ArrayList<>();
+            for (Queued entry : failed) {
+                Queued current = latest.get(entry.id());
+                if (current != null) {
+                    retained.add(new Pending(new Entry(current.id(), current.fields()), null));
+                }
+            }
+            if (!retained.isEmpty()) {
+                commit(retained);
+            }
+            awaitIdle();
+            deleteSegmentsBefore(segment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the queued fields were applied some other way, e.g. folded into a synchronous update. the
+    // drop is logged as well, replaying the older fields over that update would undo it
+    public void applied(String id, Client fields) {
+        lock.lock();
+        try {
+            Queued entry = latest.get(id);
+            if (entry != null && entry.fields() == fields) {
+                drop(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the client was deleted
+    public void discard(String id) {
+        lock.lock();
+        try {
+            if (latest.containsKey(id)) {
+                drop(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // with the lock held
+    private void drop(String id) {
+        latest.remove(id);
+        commit(List.of(new Pending(new Entry(id, null), () -> queued.remove(id))));
+    }
+
+    // with the lock held. adds the entries to the batch being gathered and returns once that
+    // batch is synced, writing it if no other caller is writing one
+    private void commit(List<Pending> entries) {
+        Batch mine = filling;
+        mine.entries.addAll(entries);
+        while (!mine.done) {
+            if (writing) {
+                written.awaitUninterruptibly();
+            } else {
+                writeBatch();
+            }
+        }
+        if (mine.failure != null) {
+            throw mine.failure;
+        }
+    }
+
+    // with the lock held, released for the write and sync. a synced batch is published to
+    // queued in log order before anyone else can look
+    private void writeBatch() {
+        Batch batch = filling;
+        filling = new Batch();
+        writing = true;
+        RuntimeException failure = null;
+        lock.unlock();
+        try {
+            write(batch.entries.stream().map(Pending::entry).toList());
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            lock.lock();
+            writing = false;
+            written.signalAll();
+        }
+        if (failure == null) {
+            for (Pending pending : batch.entries) {
+                if (pending.publish() != null) {
+                    pending.publish().run();
+                }
+            }
+        } else {
+            // entries gathered meanwhile were coalesced onto the failed ones and fail with them.
+            // the next write starts a new segment after whatever part of the batch reached the file
+            filling.done = true;
+            filling.failure = failure;
+            filling = new Batch();
+            latest.clear();
+            latest.putAll(queued);
+            closeQuietly();
+        }
+        batch.failure = failure;
+        batch.done = true;
+    }
+
+    // with the lock held, until no batch is being written
+    private void awaitIdle() {
+        while (writing) {
+            written.awaitUninterruptibly();
+        }
+    }
+
+    private static Client coalesce(Queued previous, Client update) {
+        Client fields = new Client();
+        if (previous != null) {
+            ClientFieldAccessor.merge(previous.fields(), fields);
+        }
+        ClientFieldAccessor.merge(update, fields);
+        return fields;
+    }
+
+    private void replay() throws IOException {
+        TreeMap<Long, Path> segments = segments();
+        for (Path file : segments.values()) {
+            try (BufferedReader lines = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    // a torn last line was never acknowledged
+                    if (!line.endsWith("}")) {
+                        break;
+                    }
+                    Entry entry = objectMapper.readValue(line, Entry.class);
+                    if (entry.fields() == null) {
+                        queued.remove(entry.id());
+                    } else {
+                        queued.put(entry.id(),
+                                new Queued(entry.id(), coalesce(queued.get(entry.id()), entry.fields())));
+                    }
+                }
+            }
+        }
+        segment = segments.isEmpty() ? 0 : segments.lastKey();
+    }
+
+    private void write(List<Entry> entries) {
+        try {
+            if (out == null) {
+                Files.createDirectories(directory);
+                out = new FileOutputStream(directory.resolve(segmentName(++segment)).toFile(), true);
+            }
+            StringBuilder lines = new StringBuilder();
+            for (Entry entry : entries) {
+                lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+            }
+            out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+            syncs.increment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to append to the client update log in " + directory, e);
+        }
+    }
+
+    // the next write opens a new segment
+    private void roll() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out = null;
+    }
+
+    private void closeQuietly() {
+        try {
+            roll();
+        } catch (UncheckedIOException e) {
+            out = null;
+        }
+    }
+
+    private void deleteSegmentsBefore(long current) {
+        try {
+            for (Map.Entry<Long, Path> file : segments().headMap(current).entrySet()) {
+                Files.delete(file.getValue());
+            }
+            // with nothing written since the flush began there is no current segment to keep either
+            if (out == null && segments().containsKey(current)) {
+                Files.delete(directory.resolve(segmentName(current)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to delete flushed client update log segments", e);
+        }
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher name = SEGMENT.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    segments.put(Long.parseLong(name.group(1)), file);
+                }
+            });
+        }
+        return segments;
+    }
+
+    private static String segmentName(long number) {
+        return "updates-" + number + ".log";
+    }
+}
@@ -0,0 +1,41 @@
+package com.g4t1.client.service.impl;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.service.ClientEventSink;
+
+// appends each published event as one json line, synced before the relay moves its cursor past the batch
+@Component
+@ConditionalOnExpression("'${client.outbox.file:}' != ''")
+public class FileClientEventSink implements ClientEventSink {
+    private final String path;
+    private final ObjectWriter writer;
+
+    public FileClientEventSink(@Value("${client.outbox.file}") String path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.writer = objectMapper.writerFor(ClientEvent.class);
+    }
+
+    @Override
+    public void publish(List<ClientEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        try (FileOutputStream out = new FileOutputStream(path, true)) {
+            for (ClientEvent event : events) {
+                lines.append(writer.writeValueAsString(event)).append('\n');
+            }
+            out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to append client events to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+
+// runs the startup load of an index until it succeeds. a failure, e.g. while the database is
+// still unreachable, is reported and the load tried again after a delay that doubles up to a
+// minute. only an interrupt, i.e. shutdown, ends the retries early
+final class IndexRebuildRetry {
+    private static final Duration MAX_DELAY = Duration.ofMinutes(1);
+
+    private IndexRebuildRetry() {
+    }
+
+    static void untilDone(Runnable load, Duration initialDelay, Runnable onFailure) {
+        Duration delay = initialDelay;
+        while (true) {
+            try {
+                load.run();
+                return;
+            } catch (RuntimeException e) {
+                onFailure.run();
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay = delay.multipliedBy(2);
+            if (delay.compareTo(MAX_DELAY) > 0) {
+                delay = MAX_DELAY;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.g4t1.client.service.impl;
+
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import com.g4t1.client.service.ClientIdGenerator;
+
+// random UUIDv4 keys, the original scheme
+@Component
+@ConditionalOnProperty(name = "client.id.generator", havingValue = "random")
+public class RandomClientIdGenerator implements ClientIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.g4t1.client.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+// estimates how far the replica trails the primary from the outbox high-water mark, which
+// every write advances: the lag is how long ago the primary first showed a mark the replica
+// has not reached yet. a replica that has everything the primary has reads as zero
+@Component
+@ConditionalOnExpression("'${client.datasource.replica.url:}' != ''")
+public class ReplicaLagMonitor {
+    private static final String HIGH_WATER_SQL = "SELECT COALESCE(MAX(event_id), 0) FROM client_outbox";
+    private static final int MAX_SAMPLES = 1000;
+
+    private record Sample(long atMillis, long mark) {
+    }
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    // guards samples only, the queries run outside it so a slow database holds up no other caller
+    private final ReentrantLock samplesLock = new ReentrantLock();
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    // unusable until the first check has seen the replica
+    private volatile long lagMillis = Long.MAX_VALUE;
+
+    public ReplicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica, MeterRegistry registry,
+            @Value("${client.datasource.replica.max-lag:5s}") Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        TimeGauge.builder("client.replica.lag", this, TimeUnit.MILLISECONDS,
+                        monitor -> monitor.lagMillis == Long.MAX_VALUE ? Double.NaN : monitor.lagMillis)
+                .description("how far the read replica trails the primary, NaN while it is unreachable")
+                .register(registry);
+    }
+
+    public Duration maxLag() {
+        return maxLag;
+    }
+
+    public boolean usable() {
+        return lagMillis <= maxLag.toMillis();
+    }
+
+    // a read on the replica failed, keep reads on the primary until the next check
+    public void replicaFailed() {
+        lagMillis = Long.MAX_VALUE;
+    }
+
+    @Scheduled(fixedDelayString = "${client.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        long primaryMark;
+        long replicaMark;
+        try {
+            // primary first, so the replica is never compared with a mark newer than its own read
+            primaryMark = primary.queryForObject(HIGH_WATER_SQL, Long.class);
+            replicaMark = replica.queryForObject(HIGH_WATER_SQL, Long.class);
+        } catch (DataAccessException e) {
+            lagMillis = Long.MAX_VALUE;
+            return;
+        }
+
+        samplesLock.lock();
+        try {
+            record(new Sample(now, primaryMark));
+            // marks only grow, the oldest sample above the replica's mark is when it started missing writes
+            while (!samples.isEmpty() && samples.getFirst().mark() <= replicaMark) {
+                samples.removeFirst();
+            }
+            lagMillis = samples.isEmpty() ? 0 : now - samples.getFirst().atMillis();
+        } finally {
+            samplesLock.unlock();
+        }
+    }
+
+    private void record(Sample sample) {
+        if (!samples.isEmpty() && samples.getLast().mark() >= sample.mark()) {
+            // the primary has not moved, keep the time it first showed this mark. an older mark
+            // comes from a check that queried before the last one recorded
+            return;
+        }
+        if (samples.size() == MAX_SAMPLES) {
+            // drop the second oldest, the lag is measured from the oldest so it stays exact
+            Sample oldest = samples.removeFirst();
+            samples.removeFirst();
+            samples.addFirst(oldest);
+        }
+        samples.addLast(sample);
+    }
+}
@@ -0,0 +1,33 @@
+package com.g4t1.client.service.impl;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import com.g4t1.client.service.ClientIdGenerator;
+
+// UUIDv7 (RFC 9562): 48-bit unix millis, then a 12-bit counter so ids created within the same
+// millisecond still increase, then 62 random bits. new keys land at the right edge of the
+// clustered index instead of splitting random pages
+@Component
+@ConditionalOnProperty(name = "client.id.generator", havingValue = "uuidv7", matchIfMissing = true)
+public class TimeOrderedClientIdGenerator implements ClientIdGenerator {
+    private static final int COUNTER_BITS = 12;
+
+    // millis << 12 | counter of the last id handed out
+    private final AtomicLong lastTimestamp = new AtomicLong();
+
+    @Override
+    public String nextId() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        // counter overflow simply carries into the millis, which keeps ids monotonic
+        long timestamp = lastTimestamp.updateAndGet(last -> Math.max(now, last + 1));
+
+        long millis = timestamp >>> COUNTER_BITS;
+        long counter = timestamp & ((1L << COUNTER_BITS) - 1);
+        long mostSignificant = (millis << 16) | (0x7L << 12) | counter;
+        long leastSignificant = (ThreadLocalRandom.current().nextLong() >>> 2) | (0x2L << 62);
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+}
@@ -0,0 +1,9 @@
+-- Secondary indexes for GET /api/clients filters, mirrors the @Index list on Client.
+-- InnoDB stores client_id in every secondary index, so "filter = ? AND client_id > ?
+-- ORDER BY client_id LIMIT n" is a range read on the index for any page depth.
+CREATE INDEX idx_clients_last_name_first_name ON clients (last_name, first_name);
+CREATE INDEX idx_clients_first_name ON clients (first_name);
+CREATE INDEX idx_clients_city ON clients (city);
+CREATE INDEX idx_clients_state ON clients (state);
+CREATE INDEX idx_clients_country ON clients (country);
+CREATE INDEX idx_clients_validated ON clients (validated);
@@ -0,0 +1,2 @@
+-- Optimistic locking column for Client.version, existing rows start at version 0.
+ALTER TABLE clients ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Optional: store client_id as BINARY(16) instead of CHAR(36), run before starting the service
+-- with CLIENT_ID_STORAGE=BINARY. No swap flag on UUID_TO_BIN, UUIDv7 ids are already time
+-- ordered and the service decodes the bytes in their natural order. Older v4 ids keep working,
+-- they just stay scattered across the index.
+ALTER TABLE clients ADD COLUMN client_id_bin BINARY(16) NULL FIRST;
+UPDATE clients SET client_id_bin = UUID_TO_BIN(client_id);
+ALTER TABLE clients
+    MODIFY client_id_bin BINARY(16) NOT NULL,
+    DROP PRIMARY KEY,
+    DROP COLUMN client_id,
+    RENAME COLUMN client_id_bin TO client_id,
+    ADD PRIMARY KEY (client_id);
@@ -0,0 +1,12 @@
+-- Transactional outbox for client change events. Rows are written in the same transaction as
+-- the change, published_offset stays NULL until the relay publishes the row.
+CREATE TABLE client_outbox (
+    event_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    published_offset BIGINT NULL,
+    client_id VARCHAR(36) NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    client_version BIGINT NULL,
+    payload VARCHAR(2000) NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+CREATE UNIQUE INDEX idx_client_outbox_published_offset ON client_outbox (published_offset);
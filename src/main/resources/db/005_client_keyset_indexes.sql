@@ -0,0 +1,20 @@
+-- Keyset indexes for GET /api/clients, mirrors the @Index list on Client and replaces 001.
+-- A page is "filter = ? AND client_id > ? ORDER BY client_id LIMIT n", which is a range read
+-- in index order only when client_id directly follows the filter columns. In
+-- (last_name, first_name) a last name alone is followed by first_name, so deep pages
+-- filtered by last name sorted every match; it gets (last_name, client_id) of its own.
+-- client_id is spelled out everywhere instead of relying on InnoDB's implicit primary key suffix.
+ALTER TABLE clients
+    DROP INDEX idx_clients_last_name_first_name,
+    DROP INDEX idx_clients_first_name,
+    DROP INDEX idx_clients_city,
+    DROP INDEX idx_clients_state,
+    DROP INDEX idx_clients_country,
+    DROP INDEX idx_clients_validated,
+    ADD INDEX idx_clients_last_name_first_name (last_name, first_name, client_id),
+    ADD INDEX idx_clients_last_name (last_name, client_id),
+    ADD INDEX idx_clients_first_name (first_name, client_id),
+    ADD INDEX idx_clients_city (city, client_id),
+    ADD INDEX idx_clients_state (state, client_id),
+    ADD INDEX idx_clients_country (country, client_id),
+    ADD INDEX idx_clients_validated (validated, client_id);
@@ -0,0 +1,12 @@
+-- Relay lease and delivery cursor for the outbox, one row shared by every instance. The relay
+-- no longer locks pending outbox rows, whoever holds the lease numbers and delivers them.
+-- Events numbered before this migration were delivered in the same transaction, so the
+-- cursor starts at the last offset.
+CREATE TABLE client_outbox_relay (
+    name VARCHAR(32) NOT NULL PRIMARY KEY,
+    owner VARCHAR(36) NULL,
+    lease_until TIMESTAMP(6) NOT NULL,
+    delivered_offset BIGINT NOT NULL
+);
+INSERT INTO client_outbox_relay (name, owner, lease_until, delivered_offset)
+SELECT 'relay', NULL, '1970-01-01 00:00:01', COALESCE(MAX(published_offset), 0) FROM client_outbox;
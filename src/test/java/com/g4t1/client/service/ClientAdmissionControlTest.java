@@ -0,0 +1,124 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import com.g4t1.client.service.impl.AdaptiveConcurrencyLimiter;
+import com.g4t1.client.service.impl.ClientAdmissionControl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ClientAdmissionControlTest {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // keeps the limiter saturated and completes one call per round with the given latency
+    private static void arrangeLoad(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            while (limiter.tryAcquire()) {
+                // fill every slot
+            }
+            limiter.release(rttNanos);
+        }
+    }
+
+    @Test
+    void tryAcquire_givenLimitReached_rejectsUntilASlotIsReleased() {
+        /* Arrange */
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        /* Act & Assert */
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(0);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.inflight());
+    }
+
+    @Test
+    void release_givenSteadyLatencyUnderLoad_growsTheLimit() {
+        /* Arrange */
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100);
+
+        /* Act */
+        arrangeLoad(limiter, 5 * MILLI, 50);
+
+        /* Assert */
+        assertTrue(limiter.limit() > 10, "limit " + limiter.limit());
+    }
+
+    @Test
+    void release_givenLatencyClimbingUnderLoad_shrinksTheLimitToNoLessThanMin() {
+        /* Arrange */
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 4, 100);
+        arrangeLoad(limiter, 5 * MILLI, 50);
+        int before = limiter.limit();
+
+        /* Act */
+        arrangeLoad(limiter, 50 * MILLI, 200);
+
+        /* Assert */
+        assertTrue(limiter.limit() < before / 2, before + " -> " + limiter.limit());
+        assertTrue(limiter.limit() >= 4);
+    }
+
+    @Test
+    void release_givenMostlyIdleOperation_keepsTheLimit() {
+        /* Arrange */
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100);
+
+        /* Act */
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(5 * MILLI);
+        }
+
+        /* Assert */
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void tryAcquireRate_givenCallerOverItsBurst_answersWithTheWaitAndCountsIt() {
+        /* Arrange */
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClientAdmissionControl admission = new ClientAdmissionControl(registry, 20, 4, 200, 0.01, 2);
+
+        /* Act & Assert */
+        assertEquals(0, admission.tryAcquireRate("10.0.0.1"));
+        assertEquals(0, admission.tryAcquireRate("10.0.0.1"));
+        long wait = admission.tryAcquireRate("10.0.0.1");
+        assertTrue(wait > TimeUnit.SECONDS.toNanos(90), "wait " + wait);
+        // each caller has its own bucket
+        assertEquals(0, admission.tryAcquireRate("10.0.0.2"));
+
+        admission.rejected("updateClient", ClientAdmissionControl.Rejection.RATE);
+        assertEquals(1.0, registry.get("client.admission.rejected")
+                .tags("operation", "updateClient", "reason", "rate").counter().count());
+    }
+
+    @Test
+    void tryAcquireRate_givenNoRate_admitsEveryCall() {
+        /* Arrange */
+        ClientAdmissionControl admission = new ClientAdmissionControl(new SimpleMeterRegistry(), 20, 4, 200, 0, 0);
+
+        /* Act & Assert */
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, admission.tryAcquireRate("10.0.0.1"));
+        }
+    }
+
+    @Test
+    void limiter_givenOperation_publishesItsLimitAndInflight() {
+        /* Arrange */
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClientAdmissionControl admission = new ClientAdmissionControl(registry, 20, 4, 200, 0, 0);
+
+        /* Act */
+        AdaptiveConcurrencyLimiter limiter = admission.limiter("getClient");
+        limiter.tryAcquire();
+
+        /* Assert */
+        assertSame(limiter, admission.limiter("getClient"));
+        assertEquals(20.0, registry.get("client.admission.limit").tag("operation", "getClient").gauge().value());
+        assertEquals(1.0, registry.get("client.admission.inflight").tag("operation", "getClient").gauge().value());
+    }
+}
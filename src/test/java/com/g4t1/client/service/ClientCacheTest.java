@@ -0,0 +1,126 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.service.impl.ClientCache;
+
+public class ClientCacheTest {
+
+    private ClientCache cache;
+
+    @BeforeEach
+    void arrangeCache() {
+        cache = new ClientCache(new ConcurrentMapCacheManager(ClientCache.CACHE_NAME));
+    }
+
+    private static Client arrangeClient() {
+        return new Client("0192b1c4-7a3e-7c00-8a1b-2c3d4e5f0001", "Hop", "Pod", LocalDate.of(1990, 1, 1),
+                "Non-Binary", "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden",
+                "Singapore", "Singapore", "Singapore", "317109", false, 3L);
+    }
+
+    @Test
+    void put_thenChangingTheStoredInstance_leavesCachedClientIntact() {
+        /* Arrange */
+        Client client = arrangeClient();
+        cache.put(client, cache.generation(client.getId()));
+
+        /* Act */
+        client.setCity("Zurich");
+
+        /* Assert */
+        assertEquals("Singapore", cache.get(client.getId()).getCity());
+    }
+
+    @Test
+    void get_thenChangingTheReturnedInstance_leavesCachedClientIntact() {
+        /* Arrange */
+        Client client = arrangeClient();
+        cache.put(client, cache.generation(client.getId()));
+
+        /* Act */
+        Client first = cache.get(client.getId());
+        first.setCity("Zurich");
+        first.setVersion(4L);
+        Client second = cache.get(client.getId());
+
+        /* Assert */
+        assertNotSame(first, second);
+        assertEquals("Singapore", second.getCity());
+        assertEquals(3L, second.getVersion());
+    }
+
+    @Test
+    void get_givenUnknownId_returnsNull() {
+        /* Act & Assert */
+        assertNull(cache.get("0192b1c4-7a3e-7c00-8a1b-2c3d4e5f0002"));
+    }
+
+    // a write evicting inside its transaction, then committing, as the service's writes do
+    private void commitEviction(String id) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(id);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void put_givenLoadThatRacedACommittedWrite_leavesOldRowUncached() {
+        /* Arrange */
+        Client loaded = arrangeClient();
+        long generation = cache.generation(loaded.getId());
+
+        /* Act */
+        commitEviction(loaded.getId());
+        cache.put(loaded, generation);
+
+        /* Assert */
+        assertNull(cache.get(loaded.getId()));
+    }
+
+    @Test
+    void put_beforeTheWriteCommits_isRemovedByTheEvictionAtCommit() {
+        /* Arrange */
+        Client loaded = arrangeClient();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(loaded.getId());
+            long generation = cache.generation(loaded.getId());
+            cache.put(loaded, generation);
+            assertNotNull(cache.get(loaded.getId()));
+
+            /* Act */
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        /* Assert */
+        assertNull(cache.get(loaded.getId()));
+    }
+
+    @Test
+    void put_afterLaterLoad_cachesTheNewRow() {
+        /* Arrange */
+        Client loaded = arrangeClient();
+        commitEviction(loaded.getId());
+        long generation = cache.generation(loaded.getId());
+
+        /* Act */
+        cache.put(loaded, generation);
+
+        /* Assert */
+        assertEquals(3L, cache.get(loaded.getId()).getVersion());
+    }
+}
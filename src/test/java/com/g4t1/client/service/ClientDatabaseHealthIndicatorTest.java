@@ -0,0 +1,139 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.g4t1.client.config.SchedulingConfig;
+import com.g4t1.client.service.impl.ClientDatabaseHealthIndicator;
+
+@ExtendWith(MockitoExtension.class)
+public class ClientDatabaseHealthIndicatorTest {
+
+    // holds the shared scheduler thread until released
+    static class BlockingTask {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Scheduled(fixedDelay = 60_000)
+        void block() throws InterruptedException {
+            started.countDown();
+            release.await();
+        }
+    }
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ClientDatabaseHealthIndicator indicator;
+
+    @BeforeEach
+    void arrangeIndicator() {
+        indicator = new ClientDatabaseHealthIndicator(dataSource, Duration.ofSeconds(1), Duration.ofSeconds(15), 5000);
+    }
+
+    @Test
+    void health_beforeFirstRefresh_isOutOfService() {
+        /* Act & Assert */
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        assertFalse(indicator.isUp());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void health_afterRefresh_isAnsweredWithoutTouchingTheDatabase() throws SQLException {
+        /* Arrange */
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(1)).thenReturn(true);
+        indicator.refresh();
+
+        /* Act */
+        for (int i = 0; i < 100; i++) {
+            assertTrue(indicator.isUp());
+        }
+
+        /* Assert */
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, never()).createStatement();
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    void health_givenInvalidConnection_isDown() throws SQLException {
+        /* Arrange */
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(1)).thenReturn(false);
+
+        /* Act */
+        indicator.refresh();
+
+        /* Assert */
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    @Test
+    void health_givenUnreachableDatabase_isDown() throws SQLException {
+        /* Arrange */
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        /* Act */
+        indicator.refresh();
+
+        /* Assert */
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+        assertFalse(indicator.isUp());
+    }
+
+    @Test
+    void health_whenRefreshHasStalled_isDown() throws SQLException, InterruptedException {
+        /* Arrange */
+        indicator = new ClientDatabaseHealthIndicator(dataSource, Duration.ofSeconds(1), Duration.ofMillis(1), 5000);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(1)).thenReturn(true);
+        indicator.refresh();
+        Thread.sleep(10);
+
+        /* Act & Assert */
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    @Test
+    void health_whileAnotherScheduledTaskBlocks_keepsRefreshing() throws SQLException, InterruptedException {
+        /* Arrange */
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(1)).thenReturn(true);
+        indicator = new ClientDatabaseHealthIndicator(dataSource, Duration.ofSeconds(1), Duration.ofMillis(200), 20);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(SchedulingConfig.class, BlockingTask.class);
+            context.registerBean(ClientDatabaseHealthIndicator.class, () -> indicator);
+            context.refresh();
+            BlockingTask task = context.getBean(BlockingTask.class);
+            try {
+                /* Act */
+                assertTrue(task.started.await(5, TimeUnit.SECONDS));
+                Thread.sleep(500);
+
+                /* Assert */
+                assertTrue(indicator.isUp(), () -> indicator.health().toString());
+            } finally {
+                task.release.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientSearchCriteria;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.repository.ClientEventRepository;
+import com.g4t1.client.repository.ClientOutboxRelayRepository;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.impl.ClientEventRelay;
+import com.g4t1.client.service.impl.ClientEventStream;
+
+// writes through the service against an embedded database and checks what reaches the outbox
+// and what the relay then publishes. the scheduler is not started, the tests run the relay and
+// its purge, which keeps nothing older than now
+@ClientServiceSliceTest(properties = "client.outbox.retention=0s")
+@Import({ ClientEventStream.class, ClientEventRelay.class, ClientEventRelayTest.RecordingSinkConfig.class })
+public class ClientEventRelayTest {
+
+    @TestConfiguration
+    static class RecordingSinkConfig {
+
+        @Bean
+        List<ClientEvent> published() {
+            return new CopyOnWriteArrayList<>();
+        }
+
+        @Bean
+        AtomicBoolean sinkFailing() {
+            return new AtomicBoolean();
+        }
+
+        // records what it is handed, or fails while sinkFailing is set
+        @Bean
+        ClientEventSink recordingSink(List<ClientEvent> published, AtomicBoolean sinkFailing) {
+            return batch -> {
+                if (sinkFailing.get()) {
+                    throw new IllegalStateException("sink down");
+                }
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw new IllegalStateException("delivered inside a transaction");
+                }
+                published.addAll(batch);
+            };
+        }
+    }
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private ClientEventRepository events;
+
+    @Autowired
+    private ClientEventRelay relay;
+
+    @Autowired
+    private ClientOutboxRelayRepository relays;
+
+    @Autowired
+    private ClientEventStream stream;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private List<ClientEvent> published;
+
+    @Autowired
+    private AtomicBoolean sinkFailing;
+
+    @AfterEach
+    void cleanUp() {
+        repository.deleteAll();
+        events.deleteAll();
+        relays.deleteAll();
+        published.clear();
+        sinkFailing.set(false);
+    }
+
+    @Test
+    void writes_appendOneEventEachInCommitOrder() {
+        String id = service.createClient(ClientFixtures.newClient("Singapore")).getId();
+        Client source = new Client();
+        source.setCity("Zurich");
+        service.updateClient(id, source);
+        // stored values, nothing is written so no event either
+        service.updateClient(id, source);
+        service.deleteClient(id);
+
+        List<ClientEvent> outbox = events.findAll(Sort.by("id"));
+        assertEquals(List.of(ClientEvent.Type.CREATED, ClientEvent.Type.UPDATED, ClientEvent.Type.DELETED),
+                outbox.stream().map(ClientEvent::getType).toList());
+        assertTrue(outbox.stream().allMatch(event -> event.getClientId().equals(id)));
+        assertEquals(0L, outbox.get(0).getVersion());
+        assertEquals(1L, outbox.get(1).getVersion());
+        assertTrue(outbox.get(1).getPayload().contains("\"city\":\"Zurich\""), outbox.get(1).getPayload());
+        assertNull(outbox.get(2).getVersion());
+        assertTrue(outbox.stream().allMatch(event -> event.getPublishedOffset() == null));
+    }
+
+    @Test
+    void bulkWrites_appendOneEventPerClient() {
+        service.createClients(List.of(ClientFixtures.newClient("Bern"), ClientFixtures.newClient("Bern"), ClientFixtures.newClient("Basel")));
+        ClientSearchCriteria filter = new ClientSearchCriteria();
+        filter.setCity("Bern");
+        service.patchClients(new ClientBulkPatch(null, filter, Map.of("validated", true)));
+
+        List<ClientEvent> outbox = events.findAll(Sort.by("id"));
+        assertEquals(5, outbox.size());
+        List<ClientEvent> patched = outbox.subList(3, 5);
+        assertTrue(patched.stream().allMatch(event -> event.getType() == ClientEvent.Type.UPDATED
+                && event.getVersion() == 1L && event.getPayload().equals("{\"validated\":true}")));
+    }
+
+    @Test
+    void relay_publishesPendingEventsOnceWithConsecutiveOffsets() {
+        String id = service.createClient(ClientFixtures.newClient("Singapore")).getId();
+        service.deleteClient(id);
+        service.createClient(ClientFixtures.newClient("Zurich"));
+
+        relay.relay();
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L), published.stream().map(ClientEvent::getPublishedOffset).toList());
+        assertEquals(List.of(ClientEvent.Type.CREATED, ClientEvent.Type.DELETED, ClientEvent.Type.CREATED),
+                published.stream().map(ClientEvent::getType).toList());
+        assertEquals(3, events.findLastPublishedOffset());
+
+        service.createClient(ClientFixtures.newClient("Bern"));
+        relay.relay();
+
+        assertEquals(4L, published.get(3).getPublishedOffset());
+    }
+
+    @Test
+    void relay_whenSinkFails_keepsOffsetsAndDeliversThemOnNextRun() {
+        service.createClient(ClientFixtures.newClient("Singapore"));
+        service.createClient(ClientFixtures.newClient("Zurich"));
+        sinkFailing.set(true);
+
+        assertThrows(IllegalStateException.class, relay::relay);
+
+        // numbered in a transaction of its own, which committed before delivery failed
+        assertEquals(2, events.findLastPublishedOffset());
+        assertEquals(List.of(), published);
+
+        sinkFailing.set(false);
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L), published.stream().map(ClientEvent::getPublishedOffset).toList());
+    }
+
+    @Test
+    void relay_withoutLease_leavesEventsToLeaseHolder() {
+        relay.relay();
+        service.createClient(ClientFixtures.newClient("Singapore"));
+        List<ClientEvent> second = new CopyOnWriteArrayList<>();
+        ClientEventRelay other = new ClientEventRelay(events, relays, List.of(second::addAll), stream,
+                transactionManager, 500, Duration.ofSeconds(30), Duration.ofDays(7));
+
+        other.relay();
+
+        assertEquals(List.of(), second);
+        assertEquals(0, events.findLastPublishedOffset());
+
+        relay.relay();
+
+        assertEquals(List.of(1L), published.stream().map(ClientEvent::getPublishedOffset).toList());
+    }
+
+    @Test
+    void purge_deletesDeliveredEventsButTheLastAndKeepsOffsetsGoing() {
+        for (String city : List.of("Singapore", "Zurich", "Bern")) {
+            service.createClient(ClientFixtures.newClient(city));
+        }
+        relay.relay();
+        service.createClient(ClientFixtures.newClient("Basel"));
+
+        relay.purge();
+
+        List<ClientEvent> outbox = events.findAll(Sort.by("id"));
+        assertEquals(2, outbox.size());
+        assertEquals(3L, outbox.get(0).getPublishedOffset());
+        assertNull(outbox.get(1).getPublishedOffset());
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), published.stream().map(ClientEvent::getPublishedOffset).toList());
+    }
+}
@@ -0,0 +1,21 @@
+package com.g4t1.client.service;
+
+import java.time.LocalDate;
+import com.g4t1.client.entity.Client;
+
+// the client the service tests create, new and without an id every time
+final class ClientFixtures {
+
+    private ClientFixtures() {
+    }
+
+    static Client newClient() {
+        return newClient("Singapore");
+    }
+
+    static Client newClient(String city) {
+        return new Client(null, "Hop", "Pod", LocalDate.of(1990, 1, 1), "Non-Binary",
+                "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden", city, "Singapore",
+                "Singapore", "317109", false, null);
+    }
+}
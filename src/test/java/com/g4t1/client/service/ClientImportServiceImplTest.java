@@ -0,0 +1,144 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g4t1.client.dto.ClientBatchResult;
+import com.g4t1.client.dto.ImportJob;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.exceptions.ImportJobNotFoundException;
+import com.g4t1.client.service.impl.ClientImportServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class ClientImportServiceImplTest {
+
+    private static final String GOOD_LINE = "{\"firstName\":\"Hop\",\"lastName\":\"Pod\","
+            + "\"dateOfBirth\":\"1990-01-01\",\"gender\":\"Non-Binary\","
+            + "\"emailAddress\":\"hippityhoppity@hoparound.com\",\"phoneNumber\":\"0908 1965\","
+            + "\"address\":\"71 hopping garden\",\"city\":\"Singapore\",\"state\":\"Singapore\","
+            + "\"country\":\"Singapore\",\"postalCode\":\"317109\",\"validated\":false}";
+
+    @Mock
+    private ClientService clientService;
+
+    private ClientImportServiceImpl importService;
+
+    @BeforeEach
+    void arrangeService() {
+        importService = new ClientImportServiceImpl(clientService,
+                new ObjectMapper().findAndRegisterModules(), 2, GOOD_LINE.length());
+    }
+
+    private ByteArrayInputStream arrangeBody(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importClients_givenMixedLines_countsEachOutcome() {
+        /* Arrange */
+        List<Integer> batchSizes = new ArrayList<>();
+        when(clientService.createClients(anyList())).thenAnswer(invocation -> {
+            List<Client> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            List<ClientBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(i == 0 && batchSizes.size() == 2
+                        ? ClientBatchResult.rejected(i, "invalid client source data, please check fields")
+                        : ClientBatchResult.created(i, "id-" + i));
+            }
+            return results;
+        });
+        List<Long> progress = new ArrayList<>();
+
+        /* Act */
+        ImportJob job = importService.importClients(
+                arrangeBody(GOOD_LINE, "{not json", GOOD_LINE, "", GOOD_LINE),
+                j -> progress.add(j.getLinesRead()));
+
+        /* Assert */
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getLinesRead());
+        assertEquals(2, job.getCreated());
+        assertEquals(1, job.getRejected());
+        assertEquals(1, job.getMalformed());
+        assertEquals(List.of(2, 1), batchSizes); // never more than one batch held in memory
+        assertEquals(3, progress.size()); // started, one full batch, finished
+        assertTrue(job.getErrors().get(0).startsWith("line 2:"));
+        assertTrue(job.getErrors().get(1).startsWith("line 5:"));
+        assertSame(job, importService.getImportJob(job.getId()));
+    }
+
+    @Test
+    void importClients_givenEmptyBody_completesWithoutWrites() {
+        /* Act */
+        ImportJob job = importService.importClients(arrangeBody(), j -> {
+        });
+
+        /* Assert */
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(0, job.getCreated());
+        verifyNoInteractions(clientService);
+    }
+
+    @Test
+    void getImportJob_givenUnknownId_throwsImportJobNotFoundException() {
+        /* Act & Assert */
+        assertThrows(ImportJobNotFoundException.class,
+                () -> importService.getImportJob("no-such-job"));
+    }
+
+    @Test
+    void importClients_givenOversizedLine_skipsItAsMalformed() {
+        /* Arrange */
+        when(clientService.createClients(anyList()))
+                .thenReturn(List.of(ClientBatchResult.created(0, "id-0"), ClientBatchResult.created(1, "id-1")));
+
+        /* Act */
+        ImportJob job = importService.importClients(
+                arrangeBody(GOOD_LINE, GOOD_LINE + " ".repeat(100_000), GOOD_LINE + "\r"), j -> {
+                });
+
+        /* Assert */
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getLinesRead());
+        assertEquals(2, job.getCreated());
+        assertEquals(1, job.getMalformed());
+        assertTrue(job.getErrors().get(0).startsWith("line 2: record longer than"));
+    }
+
+    @Test
+    void importClients_whenProgressWriteFails_keepsFirstErrorAndReturnsJob() {
+        /* Arrange */
+        List<Integer> reports = new ArrayList<>();
+
+        /* Act */
+        ImportJob job = importService.importClients(arrangeBody(GOOD_LINE, GOOD_LINE, GOOD_LINE), j -> {
+            reports.add(reports.size());
+            if (reports.size() > 1) {
+                throw new IllegalStateException("client went away");
+            }
+        });
+
+        /* Assert */
+        assertEquals(ImportJob.Status.FAILED, job.getStatus());
+        assertEquals(List.of("line 2: import aborted: the records could not be processed"), job.getErrors());
+        assertEquals(3, reports.size());
+    }
+
+    @Test
+    void constructor_givenNonPositiveBatchSize_throwsIllegalArgumentException() {
+        /* Act & Assert */
+        assertThrows(IllegalArgumentException.class,
+                () -> new ClientImportServiceImpl(clientService, new ObjectMapper(), 0, 100));
+    }
+}
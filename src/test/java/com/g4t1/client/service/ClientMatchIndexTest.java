@@ -0,0 +1,260 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.entity.ClientEvent;
+import com.g4t1.client.repository.ClientEventRepository;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.impl.ClientMatchIndex;
+import com.g4t1.client.service.impl.ClientMatchKeys;
+import com.g4t1.client.service.impl.ClientMetrics;
+
+@ExtendWith(MockitoExtension.class)
+public class ClientMatchIndexTest {
+    private static final LocalDate BORN = LocalDate.of(1988, 3, 14);
+
+    @Mock
+    private ClientRepository clients;
+
+    @Mock
+    private ClientEventRepository events;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ClientMatchIndex index;
+
+    @BeforeEach
+    void arrangeIndex() {
+        index = new ClientMatchIndex(clients, events, JsonMapper.builder().findAndAddModules().build(),
+                new SyncTaskExecutor(), new ClientMetrics(registry), Duration.ofMillis(1), 1000, 0.3, 0.6,
+                true);
+    }
+
+    private double failures(String operation) {
+        return registry.counter("client.index.failures", "index", "match", "operation", operation).count();
+    }
+
+    private static Client arrangeClient(String id, String first, String last, String email, String phone) {
+        return new Client(id, first, last, BORN, "Female", email, phone, "12 Orchard Road", "Singapore",
+                "Singapore", "Singapore", "238841", false, 0L);
+    }
+
+    private void arrangeLoaded(Client... existing) {
+        when(events.findLastPublishedOffset()).thenReturn(0L);
+        doReturn(new ArrayList<>(List.of(existing))).when(clients).findBy(any(Specification.class), any());
+        index.rebuild();
+    }
+
+    private List<String> matchIds(String first, String last, String email, String phone) {
+        return index.match(ClientMatchKeys.of(first, last, email, phone, null), 10).stream()
+                .map(ClientMatchIndex.Candidate::id)
+                .toList();
+    }
+
+    @Test
+    void keys_givenFormattingDifferences_normalizeToTheSameKeys() {
+        /* Arrange */
+        ClientMatchKeys stored = ClientMatchKeys.of("José", "O'Brien", "jose.obrien@example.com",
+                "+65 9123 4567", BORN);
+        ClientMatchKeys typed = ClientMatchKeys.of("jose", "OBRIEN", "Jose.OBrien+newsletter@Example.com",
+                "9123-4567", BORN);
+
+        /* Act & Assert */
+        assertArrayEquals(stored.keys(), typed.keys());
+        assertEquals("91234567", typed.phone());
+        assertEquals("jose.obrien@example.com", typed.email());
+    }
+
+    @Test
+    void match_givenPhoneticallySimilarName_findsClientWithoutEmailOrPhone() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Catherine", "Smith", "cat@example.com", "91234567"),
+                arrangeClient("c2", "Peter", "Tan", "peter@example.com", "98765432"));
+
+        /* Act & Assert */
+        assertEquals(List.of("c1"), matchIds("Katherine", "Smyth", null, null));
+        assertEquals(List.of("c1"), matchIds("Smith", "Catherine", null, null));
+    }
+
+    @Test
+    void match_givenSeveralCandidates_ranksByScore() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Wei Ling", "Lim", "weiling@example.com", "91234567"),
+                arrangeClient("c2", "Wei Ming", "Lim", "weiming@example.com", "81234567"),
+                arrangeClient("c3", "Wei Ling", "Lim", "other@example.com", "91234567"));
+
+        /* Act */
+        List<ClientMatchIndex.Candidate> found = index.match(
+                ClientMatchKeys.of("Wei Ling", "Lim", "weiling@example.com", "6591234567", null), 10);
+
+        /* Assert */
+        assertEquals("c1", found.get(0).id());
+        assertEquals(1.0, found.get(0).score());
+        assertEquals(List.of("emailAddress", "phoneNumber", "name"), found.get(0).matchedOn());
+        assertEquals("c3", found.get(1).id());
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).score() >= found.get(i).score());
+        }
+    }
+
+    @Test
+    void duplicates_givenSamePersonWithNewEmail_isFlagged() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Hop", "Pod", "hop@example.com", "0908 1965"));
+
+        /* Act */
+        List<ClientMatchIndex.Candidate> duplicates = index.duplicates(
+                arrangeClient(null, "Hop", "Pod", "hop.pod@example.org", "+65 0908 1965"));
+
+        /* Assert */
+        assertEquals(1, duplicates.size());
+        assertEquals(List.of("phoneNumber", "name", "dateOfBirth"), duplicates.get(0).matchedOn());
+    }
+
+    @Test
+    void duplicates_beforeRebuild_isEmpty() {
+        /* Arrange */
+        index.putAfterCommit(List.of(arrangeClient("c1", "Hop", "Pod", "hop@example.com", "0908 1965")));
+
+        /* Act & Assert */
+        assertFalse(index.isReady());
+        assertTrue(index.duplicates(
+                arrangeClient(null, "Hop", "Pod", "hop@example.com", "0908 1965")).isEmpty());
+    }
+
+    @Test
+    void putAfterCommit_givenChangedEmail_dropsTheOldKey() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Hop", "Pod", "hop@example.com", null));
+        Client changed = arrangeClient("c1", "Hop", "Pod", "hop@new.example.com", null);
+        changed.setVersion(1L);
+
+        /* Act */
+        index.putAfterCommit(List.of(changed));
+
+        /* Assert */
+        assertEquals(List.of(), matchIds(null, null, "hop@example.com", null));
+        assertEquals(List.of("c1"), matchIds(null, null, "hop@new.example.com", null));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void putAfterCommit_givenOlderVersion_keepsTheNewerEntry() {
+        /* Arrange */
+        Client current = arrangeClient("c1", "Hop", "Pod", "hop@new.example.com", null);
+        current.setVersion(3L);
+        arrangeLoaded(current);
+
+        /* Act */
+        index.putAfterCommit(List.of(arrangeClient("c1", "Hop", "Pod", "hop@example.com", null)));
+
+        /* Assert */
+        assertEquals(List.of(), matchIds(null, null, "hop@example.com", null));
+        assertEquals(List.of("c1"), matchIds(null, null, "hop@new.example.com", null));
+    }
+
+    @Test
+    void removeAfterCommit_givenLateReplayOfCreate_staysRemoved() {
+        /* Arrange */
+        Client client = arrangeClient("c1", "Hop", "Pod", "hop@example.com", null);
+        arrangeLoaded(client);
+
+        /* Act */
+        index.removeAfterCommit("c1");
+        index.putAfterCommit(List.of(client));
+
+        /* Assert */
+        assertEquals(List.of(), matchIds(null, null, "hop@example.com", null));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void follow_givenPublishedPatchEvent_appliesThePatchedFields() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Hop", "Pod", "hop@example.com", null));
+        ClientEvent patched = new ClientEvent();
+        patched.setPublishedOffset(1L);
+        patched.setClientId("c1");
+        patched.setType(ClientEvent.Type.UPDATED);
+        patched.setVersion(1L);
+        patched.setPayload("{\"emailAddress\":\"hop@patched.example.com\"}");
+        when(events.findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(eq(0L), any()))
+                .thenReturn(List.of(patched));
+
+        /* Act */
+        index.follow();
+
+        /* Assert */
+        assertEquals(List.of("c1"), matchIds(null, null, "hop@patched.example.com", null));
+        assertEquals(List.of(), matchIds(null, null, "hop@example.com", null));
+    }
+
+    @Test
+    void patchAfterCommit_givenVersionAlreadyApplied_isSkipped() {
+        /* Arrange */
+        Client current = arrangeClient("c1", "Hop", "Pod", "hop@example.com", null);
+        current.setVersion(2L);
+        arrangeLoaded(current);
+
+        /* Act */
+        index.patchAfterCommit(Map.of("c1", 1L), Map.of("emailAddress", "hop@patched.example.com"));
+
+        /* Assert */
+        assertEquals(List.of("c1"), matchIds(null, null, "hop@example.com", null));
+    }
+
+    @Test
+    void rebuildOnStartup_givenFailingScan_retriesUntilReady() {
+        /* Arrange */
+        when(events.findLastPublishedOffset()).thenReturn(0L);
+        doThrow(new IllegalStateException("database not reachable"))
+                .doReturn(new ArrayList<>(List.of(arrangeClient("c1", "Catherine", "Smith", "cat@example.com",
+                        "91234567"))))
+                .when(clients).findBy(any(Specification.class), any());
+
+        /* Act */
+        index.rebuildOnStartup();
+
+        /* Assert */
+        assertTrue(index.isReady());
+        assertEquals(1, index.size());
+        assertEquals(1, failures("rebuild"));
+    }
+
+    @Test
+    void follow_givenUnreadablePayload_skipsAndCountsIt() {
+        /* Arrange */
+        arrangeLoaded();
+        ClientEvent broken = new ClientEvent();
+        broken.setPublishedOffset(1L);
+        broken.setClientId("c1");
+        broken.setType(ClientEvent.Type.UPDATED);
+        broken.setVersion(1L);
+        broken.setPayload("{not json");
+        when(events.findByPublishedOffsetGreaterThanOrderByPublishedOffsetAsc(eq(0L), any()))
+                .thenReturn(List.of(broken));
+
+        /* Act */
+        index.follow();
+
+        /* Assert */
+        assertEquals(1, failures("apply"));
+        assertEquals(0, index.size());
+    }
+}
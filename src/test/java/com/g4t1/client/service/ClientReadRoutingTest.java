@@ -0,0 +1,148 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.g4t1.client.config.ReplicaDataSourceConfig;
+import com.g4t1.client.dto.ClientSearchCriteria;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.service.impl.ReplicaLagMonitor;
+
+// two embedded databases stand in for the primary and the replica. nothing replicates between
+// them on its own, the tests copy rows across to play a replica that has caught up
+@ClientServiceSliceTest(properties = { "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver", "spring.datasource.username=sa",
+        "spring.datasource.password=", "spring.jpa.hibernate.ddl-auto=create-drop",
+        "client.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "client.datasource.replica.max-lag=200ms",
+        "client.datasource.replica.read-your-writes-window=200ms" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ReplicaDataSourceConfig.class, ReplicaLagMonitor.class })
+public class ClientReadRoutingTest {
+    private static final String[] TABLES = { "clients", "client_outbox" };
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void arrangeReplica() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE IF NOT EXISTS clients (client_id VARCHAR(36) PRIMARY KEY, "
+                + "first_name VARCHAR(50), last_name VARCHAR(50), date_of_birth DATE, gender VARCHAR(20), "
+                + "email_address VARCHAR(50), phone_number VARCHAR(20), address VARCHAR(100), "
+                + "city VARCHAR(50), state VARCHAR(50), country VARCHAR(50), postal_code VARCHAR(10), "
+                + "validated BOOLEAN, version BIGINT)");
+        replica.execute("CREATE TABLE IF NOT EXISTS client_outbox (event_id BIGINT PRIMARY KEY, "
+                + "published_offset BIGINT, client_id VARCHAR(36), type VARCHAR(10), "
+                + "client_version BIGINT, payload VARCHAR(2000), created_at TIMESTAMP)");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : TABLES) {
+            primary.execute("DELETE FROM " + table);
+            replica.execute("DELETE FROM " + table);
+        }
+    }
+
+    // brings the replica level with the primary
+    private void replicate() {
+        for (String table : TABLES) {
+            replica.execute("DELETE FROM " + table);
+            for (Map<String, Object> row : primary.queryForList("SELECT * FROM " + table)) {
+                String columns = String.join(", ", row.keySet());
+                String marks = String.join(", ", row.keySet().stream().map(column -> "?").toList());
+                replica.update("INSERT INTO " + table + " (" + columns + ") VALUES (" + marks + ")",
+                        row.values().toArray());
+            }
+        }
+    }
+
+    private String createClient(String city) {
+        return service.createClient(ClientFixtures.newClient(city)).getId();
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("client.read").tag("target", target).counter().count();
+    }
+
+    @Test
+    void getClient_justWritten_readsItsOwnWriteFromPrimary() {
+        String id = createClient("Singapore");
+        lagMonitor.check();
+        assertTrue(lagMonitor.usable());
+        double replicaReads = reads("replica");
+
+        // the replica has not seen the insert, only the primary can answer
+        assertEquals("Singapore", service.getClient(id).getCity());
+        assertEquals(replicaReads, reads("replica"));
+    }
+
+    @Test
+    void reads_onceOutsideTheWindow_goToReplica() throws InterruptedException {
+        String id = createClient("Singapore");
+        replicate();
+        replica.update("UPDATE clients SET city = 'Replica'");
+        Thread.sleep(300);
+        lagMonitor.check();
+        double replicaReads = reads("replica");
+
+        assertEquals("Replica", service.getClient(id).getCity());
+        List<Client> listed = service.searchClients(new ClientSearchCriteria(), null, 10).getItems();
+        assertEquals("Replica", listed.get(0).getCity());
+        assertEquals(replicaReads + 2, reads("replica"));
+    }
+
+    @Test
+    void reads_whileReplicaTrailsPastMaxLag_fallBackToPrimary() throws InterruptedException {
+        String replicated = createClient("Singapore");
+        replicate();
+        replica.update("UPDATE clients SET city = 'Replica'");
+        createClient("Zurich");
+        Thread.sleep(300);
+        // first sight of the new primary mark, the replica has only just fallen behind
+        lagMonitor.check();
+        assertTrue(lagMonitor.usable());
+        Thread.sleep(300);
+        lagMonitor.check();
+        assertFalse(lagMonitor.usable());
+        double replicaReads = reads("replica");
+
+        assertEquals("Singapore", service.getClient(replicated).getCity());
+        assertEquals(2, service.searchClients(new ClientSearchCriteria(), null, 10).getItems().size());
+        assertEquals(replicaReads, reads("replica"));
+
+        // caught up again
+        replicate();
+        lagMonitor.check();
+        assertTrue(lagMonitor.usable());
+    }
+}
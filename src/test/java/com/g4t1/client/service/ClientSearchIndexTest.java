@@ -0,0 +1,239 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.repository.ClientEventRepository;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.impl.ClientMetrics;
+import com.g4t1.client.service.impl.ClientSearchIndex;
+
+@ExtendWith(MockitoExtension.class)
+public class ClientSearchIndexTest {
+
+    @Mock
+    private ClientRepository clients;
+
+    @Mock
+    private ClientEventRepository events;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ClientSearchIndex index;
+
+    @BeforeEach
+    void arrangeIndex() throws IOException {
+        index = newIndex("");
+    }
+
+    @AfterEach
+    void closeIndex() throws IOException {
+        index.close();
+    }
+
+    private ClientSearchIndex newIndex(String path) throws IOException {
+        return new ClientSearchIndex(clients, events, JsonMapper.builder().findAndAddModules().build(),
+                new SyncTaskExecutor(), new ClientMetrics(registry), Duration.ofMillis(1), path);
+    }
+
+    private static Client arrangeClient(String id, String first, String last, String address, String postalCode) {
+        return new Client(id, first, last, LocalDate.of(1990, 1, 1), "Female", id + "@example.com", "91234567",
+                address, "Singapore", "Singapore", "Singapore", postalCode, false, 0L);
+    }
+
+    private void arrangeLoaded(Client... existing) {
+        when(events.findLastPublishedOffset()).thenReturn(0L);
+        doReturn(new ArrayList<>(List.of(existing))).when(clients).findBy(any(Specification.class), any());
+        index.rebuild();
+    }
+
+    private double failures(String operation) {
+        return registry.counter("client.index.failures", "index", "search", "operation", operation).count();
+    }
+
+    private List<String> searchIds(String text) {
+        return index.search(text, null, 10).ids();
+    }
+
+    @Test
+    void search_givenFragments_matchesStartOfNamesAndStreets() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road", "238841"),
+                arrangeClient("c2", "Peter", "Tan", "5 Jurong West Street 91", "640005"));
+
+        /* Act & Assert */
+        assertEquals(List.of("c1"), searchIds("cath"));
+        assertEquals(List.of("c1"), searchIds("ORCH"));
+        assertEquals(List.of("c2"), searchIds("jur"));
+        assertEquals(List.of("c2"), searchIds("Péter"));
+    }
+
+    @Test
+    void search_givenPostalCodeFragment_matchesAnyPartOfIt() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road", "238841"),
+                arrangeClient("c2", "Peter", "Tan", "5 Jurong West Street 91", "640005"));
+
+        /* Act & Assert */
+        assertEquals(List.of("c1"), searchIds("3884"));
+        assertEquals(List.of("c2"), searchIds("640005"));
+    }
+
+    @Test
+    void search_givenSeveralWords_requiresEveryWordAndRanksWholeWordsFirst() {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Mei", "Tanaka", "8 Orchard Road", "238800"),
+                arrangeClient("c2", "Mei", "Tan", "8 Orchard Road", "238800"),
+                arrangeClient("c3", "Mei", "Tan", "3 Bedok North Avenue", "460003"));
+
+        /* Act & Assert */
+        assertEquals(List.of("c2", "c1"), searchIds("tan orchard"));
+        assertEquals(List.of("c3"), searchIds("tan bedok"));
+    }
+
+    @Test
+    void search_givenCursor_pagesThroughEveryHitOnce() {
+        /* Arrange */
+        List<Client> lims = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            lims.add(arrangeClient("c" + i, "Wei", i % 2 == 0 ? "Lim" : "Limbu", i + " Holland Road", "27800" + i));
+        }
+        arrangeLoaded(lims.toArray(Client[]::new));
+
+        /* Act */
+        List<String> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            ClientSearchIndex.Page page = index.search("lim", after, 3);
+            seen.addAll(page.ids());
+            after = page.nextCursor();
+            pages++;
+        } while (after != null);
+
+        /* Assert */
+        assertEquals(3, pages);
+        assertEquals(7, seen.size());
+        assertEquals(7, Set.copyOf(seen).size());
+        // whole word matches first
+        assertEquals(Set.of("c0", "c2", "c4", "c6"), Set.copyOf(seen.subList(0, 4)));
+    }
+
+    @Test
+    void search_givenNoUsableWord_throwsIllegalArgumentException() {
+        /* Act & Assert */
+        assertThrows(IllegalArgumentException.class, () -> index.search("a - ?", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("tan", "not-a-cursor", 10));
+    }
+
+    @Test
+    void writesAfterCommit_becomeSearchableOnTheNextFollow() throws IOException {
+        /* Arrange */
+        arrangeLoaded(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road", "238841"),
+                arrangeClient("c2", "Peter", "Tan", "5 Jurong West Street 91", "640005"));
+
+        /* Act */
+        index.putAfterCommit(List.of(arrangeClient("c3", "Aisha", "Rahman", "1 Tampines Avenue", "529001")));
+        index.patchAfterCommit(Set.of("c1"), Map.of("address", "40 Bukit Timah Road"));
+        index.removeAfterCommit("c2");
+        index.follow();
+
+        /* Assert */
+        assertEquals(List.of("c3"), searchIds("rahman tampines"));
+        assertEquals(List.of("c1"), searchIds("smith bukit"));
+        assertEquals(List.of(), searchIds("orchard"));
+        assertEquals(List.of(), searchIds("peter"));
+    }
+
+    @Test
+    void loadOnStartup_givenCommittedIndexOnDisk_resumesWithoutScanningTheTable(@TempDir Path dir)
+            throws IOException {
+        /* Arrange */
+        index.close();
+        index = newIndex(dir.toString());
+        arrangeLoaded(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road", "238841"));
+        index.close();
+        clearInvocations(clients);
+
+        /* Act */
+        index = newIndex(dir.toString());
+        index.loadOnStartup();
+
+        /* Assert */
+        assertTrue(index.isReady());
+        assertEquals(List.of("c1"), searchIds("smith"));
+        verifyNoInteractions(clients);
+    }
+
+    @Test
+    void loadOnStartup_givenCommittedOffsetBeforePurgedEvents_rebuildsFromTheTable(@TempDir Path dir)
+            throws IOException {
+        /* Arrange */
+        index.close();
+        index = newIndex(dir.toString());
+        arrangeLoaded(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road", "238841"));
+        index.close();
+        clearInvocations(clients);
+        when(events.findLastPublishedOffset()).thenReturn(10L);
+        when(events.findFirstPublishedOffset()).thenReturn(5L);
+
+        /* Act */
+        index = newIndex(dir.toString());
+        index.loadOnStartup();
+
+        /* Assert */
+        assertTrue(index.isReady());
+        verify(clients).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void loadOnStartup_givenFailingScan_retriesUntilReady() {
+        /* Arrange */
+        when(events.findLastPublishedOffset()).thenReturn(0L);
+        doThrow(new IllegalStateException("database not reachable"))
+                .doReturn(new ArrayList<>(List.of(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road",
+                        "238841"))))
+                .when(clients).findBy(any(Specification.class), any());
+
+        /* Act */
+        index.loadOnStartup();
+
+        /* Assert */
+        assertTrue(index.isReady());
+        assertEquals(List.of("c1"), searchIds("smith"));
+        assertEquals(1, failures("rebuild"));
+    }
+
+    @Test
+    void putAfterCommit_whenIndexWriteFails_countsItWithoutFailingTheCaller() throws IOException {
+        /* Arrange */
+        index.close();
+
+        /* Act */
+        index.putAfterCommit(List.of(arrangeClient("c1", "Catherine", "Smith", "12 Orchard Road", "238841")));
+
+        /* Assert */
+        assertEquals(1, failures("write"));
+        index = newIndex("");
+    }
+}
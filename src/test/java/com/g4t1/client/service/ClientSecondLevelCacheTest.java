@@ -0,0 +1,158 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import com.g4t1.client.config.SecondLevelCacheConfig;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientSearchCriteria;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.exceptions.ClientNotFoundException;
+import com.g4t1.client.exceptions.ClientPreconditionFailedException;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.impl.ClientCache;
+
+// the service with hibernate's second-level cache switched on as the perf profile does, counting
+// the sql that still reaches the embedded database and checking that writes never leave a stale
+// client behind in the cache
+@ClientServiceSliceTest(properties = { "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.g4t1.client.service.ClientSecondLevelCacheTest$SqlRecorder",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail" })
+@Import(SecondLevelCacheConfig.class)
+public class ClientSecondLevelCacheTest {
+
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase());
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private ClientCache clientCache;
+
+    private String targetId;
+
+    @BeforeEach
+    void arrangeCachedClient() {
+        targetId = service.createClient(ClientFixtures.newClient()).getId();
+        readPastClientCache(targetId);
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        repository.deleteAll();
+    }
+
+    // what getClient finds once the spring read cache has let the client go
+    private Client readPastClientCache(String id) {
+        clientCache.evict(id);
+        return service.getClient(id);
+    }
+
+    @Test
+    void getClient_missingReadCache_issuesNoSelect() {
+        /* Act */
+        Client client = readPastClientCache(targetId);
+
+        /* Assert */
+        assertEquals("Singapore", client.getCity());
+        assertEquals(List.of(), SqlRecorder.STATEMENTS);
+    }
+
+    @Test
+    void updateClient_loadsFromCacheAndCachesCommittedState() {
+        /* Arrange */
+        Client source = new Client();
+        source.setCity("Zurich");
+
+        /* Act */
+        service.updateClient(targetId, source);
+        Client reread = readPastClientCache(targetId);
+
+        /* Assert */
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("update"));
+        assertEquals("Zurich", reread.getCity());
+        assertEquals(1L, reread.getVersion());
+    }
+
+    @Test
+    void updateClient_withStaleVersion_leavesCachedClientIntact() {
+        /* Arrange */
+        Client source = new Client();
+        source.setCity("Zurich");
+
+        /* Act */
+        assertThrows(ClientPreconditionFailedException.class,
+                () -> service.updateClient(targetId, source, Set.of(7L)));
+        Client reread = readPastClientCache(targetId);
+
+        /* Assert */
+        assertEquals("Singapore", reread.getCity());
+        assertEquals(0L, reread.getVersion());
+    }
+
+    @Test
+    void deleteClient_removesCachedClient() {
+        /* Act */
+        service.deleteClient(targetId);
+
+        /* Assert */
+        assertThrows(ClientNotFoundException.class, () -> readPastClientCache(targetId));
+    }
+
+    @Test
+    void deleteClient_keepsOtherClientsCached() {
+        /* Arrange */
+        String otherId = service.createClient(ClientFixtures.newClient()).getId();
+        readPastClientCache(otherId);
+        SqlRecorder.STATEMENTS.clear();
+
+        /* Act */
+        service.deleteClient(targetId);
+        Client other = readPastClientCache(otherId);
+
+        /* Assert */
+        assertEquals("Singapore", other.getCity());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("delete"));
+    }
+
+    @Test
+    void patchClients_emptiesRegionSoReadsSeePatchedRows() {
+        /* Arrange */
+        ClientSearchCriteria filter = new ClientSearchCriteria();
+        filter.setCountry("Singapore");
+
+        /* Act */
+        service.patchClients(new ClientBulkPatch(null, filter, Map.of("city", "Zurich")));
+        SqlRecorder.STATEMENTS.clear();
+        Client patched = readPastClientCache(targetId);
+
+        /* Assert */
+        assertEquals("Zurich", patched.getCity());
+        assertEquals(1L, patched.getVersion());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+    }
+}
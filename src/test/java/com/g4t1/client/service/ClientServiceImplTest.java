@@ -3,19 +3,51 @@ package com.g4t1.client.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.g4t1.client.dto.ClientBatchResult;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientBulkPatchResult;
+import com.g4t1.client.dto.ClientLookup;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.dto.ClientSearchCriteria;
 import com.g4t1.client.entity.Client;
+import com.g4t1.client.exceptions.ClientDuplicateException;
 import com.g4t1.client.exceptions.ClientNotFoundException;
+import com.g4t1.client.exceptions.ClientPreconditionFailedException;
+import com.g4t1.client.exceptions.ClientVersionConflictException;
 import com.g4t1.client.exceptions.InvalidClientSourceDataException;
+import com.g4t1.client.repository.ClientBatchRepository;
 import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.impl.ClientCache;
+import com.g4t1.client.service.impl.ClientDatabaseHealthIndicator;
+import com.g4t1.client.service.impl.ClientMatchIndex;
+import com.g4t1.client.service.impl.ClientMetrics;
+import com.g4t1.client.service.impl.ClientOutbox;
+import com.g4t1.client.service.impl.ClientReadRouting;
+import com.g4t1.client.service.impl.ClientSearchIndex;
 import com.g4t1.client.service.impl.ClientServiceImpl;
+import com.g4t1.client.service.impl.ClientUpdateLog;
+import com.g4t1.client.service.impl.TimeOrderedClientIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
 
 @ExtendWith(MockitoExtension.class)
 public class ClientServiceImplTest {
@@ -23,25 +55,68 @@ public class ClientServiceImplTest {
     @Mock
     private ClientRepository repository;
 
-    @InjectMocks
+    @Mock
+    private ClientBatchRepository batchRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ClientCache cache;
+
+    @Mock
+    private ClientOutbox outbox;
+
+    @Mock
+    private ClientDatabaseHealthIndicator databaseHealth;
+
+    @Mock
+    private ClientMatchIndex matchIndex;
+
+    @Mock
+    private ClientSearchIndex searchIndex;
+
+    @Mock
+    private ClientUpdateLog updateLog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private ClientServiceImpl service;
 
+    @BeforeEach
+    void arrangeService() {
+        service = arrangeService("pessimistic");
+    }
+
+    private ClientServiceImpl arrangeService(String lockingMode) {
+        meterRegistry = new SimpleMeterRegistry();
+        ClientMetrics metrics = new ClientMetrics(meterRegistry);
+        return new ClientServiceImpl(repository, batchRepository, validator, cache,
+                new TimeOrderedClientIdGenerator(), metrics, outbox,
+                new ClientReadRouting(Optional.empty(), metrics, Duration.ofSeconds(5)),
+                databaseHealth, matchIndex, searchIndex, updateLog, transactionManager, lockingMode, 2, 2, 3,
+                2);
+    }
+
     private Client arrangeGoodSource() {
         Client goodSource = new Client(null, "Hop", "Pod", LocalDate.now(), "Non-Binary",
                 "hippityhoppity@hoparound.com", "0908 1965", "71 hopping garden", "Singapore",
-                "Singapore", "Singapore", "317109", false);
+                "Singapore", "Singapore", "317109", false, null);
         return goodSource;
     }
 
     private Client arrangeBadSource() {
         Client goodSource = new Client(null, "Hop", "Pod", LocalDate.now(), null, null, "0908 1965",
-                "71 hopping garden", null, "Singapore", null, "317109", false);
+                "71 hopping garden", null, "Singapore", null, "317109", false, null);
         return goodSource;
     }
 
     private Client arrangeUpdateSource() {
         Client goodSource = new Client(null, null, "Scotch", null, "   ", "", null,
-                "101 kinder grounds", "Zurich", "Zurich", "Switzerland", "8111013", true);
+                "101 kinder grounds", "Zurich", "Zurich", "Switzerland", "8111013", true, null);
         return goodSource;
     }
 
@@ -160,6 +235,133 @@ public class ClientServiceImplTest {
             assertEquals("317109", result.getPostalCode());
             assertTrue(result.getId() instanceof String);
         }
+
+        @Test
+        void createClient_givenNoValidated_storesFalse() {
+            /* Arrange */
+            goodSource.setValidated(null);
+            when(repository.save(any(Client.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            /* Act */
+            Client result = service.createClient(goodSource);
+
+            /* Assert */
+            assertEquals(Boolean.FALSE, result.getValidated());
+        }
+
+        @Test
+        void createClient_givenGoodSources_assignsIncreasingTimeOrderedIds() {
+            /* Arrange */
+            when(repository.save(any(Client.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            List<String> ids = new ArrayList<>();
+
+            /* Act */
+            for (int i = 0; i < 5000; i++) {
+                ids.add(service.createClient(arrangeGoodSource()).getId());
+            }
+
+            /* Assert */
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, ids.get(i));
+            }
+            UUID id = UUID.fromString(ids.get(0));
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+        }
+
+        @Test
+        void createClient_givenLikelyDuplicate_throwsClientDuplicateExceptionWithCandidates() {
+            /* Arrange */
+            Client existing = arrangeGoodSource();
+            existing.setId("existing-id");
+            when(matchIndex.duplicates(goodSource)).thenReturn(List.of(
+                    new ClientMatchIndex.Candidate("existing-id", 0.92, List.of("emailAddress", "name"))));
+            when(repository.findAllById(List.of("existing-id"))).thenReturn(List.of(existing));
+
+            /* Act */
+            ClientDuplicateException duplicate = assertThrows(ClientDuplicateException.class,
+                    () -> service.createClient(goodSource));
+
+            /* Assert */
+            assertEquals(1, duplicate.getCandidates().size());
+            assertSame(existing, duplicate.getCandidates().get(0).getClient());
+            assertEquals(0.92, duplicate.getCandidates().get(0).getScore());
+            verify(repository, never()).save(any(Client.class));
+        }
+
+        @Test
+        void createClient_givenAllowDuplicates_skipsDuplicateCheck() {
+            /* Arrange */
+            when(repository.save(any(Client.class))).thenReturn(goodSource);
+
+            /* Act */
+            service.createClient(goodSource, true);
+
+            /* Assert */
+            verify(matchIndex, never()).duplicates(any(Client.class));
+            verify(repository).save(goodSource);
+        }
+    }
+
+    @Nested
+    class CreateClientsTests {
+
+        @Test
+        void createClients_givenEmptyList_throwsIllegalArgumentException() {
+            /* Act & Assert */
+            assertThrows(IllegalArgumentException.class, () -> service.createClients(List.of()));
+            assertThrows(IllegalArgumentException.class, () -> service.createClients(null));
+        }
+
+        @Test
+        void createClients_givenMixedSources_reportsPerItem() {
+            /* Arrange */
+            Client withId = arrangeGoodSource();
+            withId.setId("existing-id");
+            List<Client> batch = Arrays.asList(arrangeGoodSource(), arrangeBadSource(), withId,
+                    null, arrangeGoodSource());
+            when(batchRepository.insertAll(anyList(), any())).thenReturn(List.of());
+
+            /* Act */
+            List<ClientBatchResult> results = service.createClients(batch);
+
+            /* Assert */
+            assertEquals(5, results.size());
+            assertEquals(ClientBatchResult.Status.CREATED, results.get(0).getStatus());
+            assertEquals(ClientBatchResult.Status.REJECTED, results.get(1).getStatus());
+            assertEquals(ClientBatchResult.Status.REJECTED, results.get(2).getStatus());
+            assertEquals(ClientBatchResult.Status.REJECTED, results.get(3).getStatus());
+            assertEquals(ClientBatchResult.Status.CREATED, results.get(4).getStatus());
+            assertNotNull(results.get(0).getId());
+            assertNotEquals(results.get(0).getId(), results.get(4).getId());
+            assertEquals(4, results.get(4).getIndex());
+            verify(batchRepository).insertAll(argThat(saved -> saved.size() == 2), any());
+        }
+
+        @Test
+        void createClients_givenRowFailingInRepository_reportsFailed() {
+            /* Arrange */
+            List<Client> batch = List.of(arrangeGoodSource(), arrangeGoodSource());
+            when(batchRepository.insertAll(anyList(), any()))
+                    .thenAnswer(invocation -> List.of(batch.get(1).getId()));
+
+            /* Act */
+            List<ClientBatchResult> results = service.createClients(batch);
+
+            /* Assert */
+            assertEquals(ClientBatchResult.Status.CREATED, results.get(0).getStatus());
+            assertEquals(ClientBatchResult.Status.FAILED, results.get(1).getStatus());
+        }
+
+        @Test
+        void createClients_givenOnlyBadSources_neverTouchesRepository() {
+            /* Act */
+            List<ClientBatchResult> results = service.createClients(List.of(arrangeBadSource()));
+
+            /* Assert */
+            assertEquals(ClientBatchResult.Status.REJECTED, results.get(0).getStatus());
+            verifyNoInteractions(batchRepository);
+        }
     }
 
     @Nested
@@ -170,6 +372,12 @@ public class ClientServiceImplTest {
         Client sourceClient;
         String targetId;
 
+        private Client reloadTarget() {
+            Client reloaded = arrangeGoodSource();
+            reloaded.setId(targetId);
+            return reloaded;
+        }
+
         @BeforeEach
         void arrangeRepo() {
             targetClient = arrangeGoodSource();
@@ -189,9 +397,6 @@ public class ClientServiceImplTest {
 
         @Test
         void updateClient_givenNullSource_throwsInvalidClientSourceDataException() {
-            /* Arrage */
-            when(repository.existsById(targetId)).thenReturn(true);
-
             /* Act & Assert */
             assertThrows(InvalidClientSourceDataException.class,
                     () -> service.updateClient(targetId, null));
@@ -201,7 +406,6 @@ public class ClientServiceImplTest {
         void updateClient_givenRandomTargetId_throwsClientNotFoundException() {
             /* Arrage */
             String missingId = "1-very-challenging-brick-wall";
-            when(repository.existsById(missingId)).thenReturn(true);
             when(repository.findByIdWithLocking(missingId)).thenReturn(java.util.Optional.empty());
 
             /* Act & Assert */
@@ -213,10 +417,9 @@ public class ClientServiceImplTest {
         void updateClient_givenValidSource_updatesSuccessfully() {
 
             /* Arrage */
-            when(repository.existsById(targetId)).thenReturn(true);
             when(repository.findByIdWithLocking(targetId))
                     .thenReturn(java.util.Optional.of(targetClient));
-            when(repository.save(any(Client.class)))
+            when(repository.saveAndFlush(any(Client.class)))
                     .thenAnswer(invocation -> invocation.getArgument(0));
 
             /* Act & Assert */
@@ -231,10 +434,484 @@ public class ClientServiceImplTest {
             assertEquals("Zurich", result.getState()); // updated
             assertEquals("Switzerland", result.getCountry()); // updated
             assertEquals("8111013", result.getPostalCode()); // updated
-            assertTrue(result.isValidated()); // updated
+            assertTrue(result.getValidated()); // updated
 
             assertEquals("Non-Binary", result.getGender()); // not updated
             assertEquals("hippityhoppity@hoparound.com", result.getEmailAddress());// not updated
+            verify(cache).evict(targetId);
+        }
+
+        @Test
+        void updateClient_givenUnchangedValues_skipsWriteAndCountsNoop() {
+            /* Arrage */
+            Client sameValues = new Client();
+            sameValues.setCity(targetClient.getCity());
+            sameValues.setPhoneNumber(targetClient.getPhoneNumber());
+            when(repository.findByIdWithLocking(targetId))
+                    .thenReturn(java.util.Optional.of(targetClient));
+
+            /* Act */
+            Client result = service.updateClient(targetId, sameValues);
+
+            /* Assert */
+            assertSame(targetClient, result);
+            verify(repository, never()).saveAndFlush(any(Client.class));
+            verify(cache, never()).evict(targetId);
+            assertEquals(1, meterRegistry.get("client.update.noop").counter().count());
+        }
+
+        @Test
+        void updateClient_givenNoValidated_keepsStoredValueAndCountsNoop() {
+            /* Arrage */
+            targetClient.setValidated(true);
+            Client sameCity = new Client();
+            sameCity.setCity(targetClient.getCity());
+            when(repository.findByIdWithLocking(targetId))
+                    .thenReturn(java.util.Optional.of(targetClient));
+
+            /* Act */
+            Client result = service.updateClient(targetId, sameCity);
+
+            /* Assert */
+            assertTrue(result.getValidated());
+            verify(repository, never()).saveAndFlush(any(Client.class));
+            assertEquals(1, meterRegistry.get("client.update.noop").counter().count());
+        }
+
+        @Test
+        void updateClient_givenStaleExpectedVersion_throwsClientPreconditionFailedException() {
+            /* Arrage */
+            targetClient.setVersion(4L);
+            when(repository.findByIdWithLocking(targetId))
+                    .thenReturn(java.util.Optional.of(targetClient));
+
+            /* Act & Assert */
+            assertThrows(ClientPreconditionFailedException.class,
+                    () -> service.updateClient(targetId, sourceClient, Set.of(3L)));
+            verify(repository, never()).saveAndFlush(any(Client.class));
+        }
+
+        @Test
+        void updateClient_givenExpectedVersionsListingCurrent_updates() {
+            /* Arrage */
+            targetClient.setVersion(4L);
+            when(repository.findByIdWithLocking(targetId))
+                    .thenReturn(java.util.Optional.of(targetClient));
+            when(repository.saveAndFlush(any(Client.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            /* Act & Assert */
+            Client result = service.updateClient(targetId, sourceClient, Set.of(3L, 4L));
+            assertEquals("Scotch", result.getLastName());
+        }
+
+        @Test
+        void updateClient_givenNoExpectedVersions_throwsClientPreconditionFailedException() {
+            /* Arrage */
+            when(repository.findByIdWithLocking(targetId))
+                    .thenReturn(java.util.Optional.of(targetClient));
+
+            /* Act & Assert */
+            assertThrows(ClientPreconditionFailedException.class,
+                    () -> service.updateClient(targetId, sourceClient, Set.of()));
+            verify(repository, never()).saveAndFlush(any(Client.class));
+        }
+
+        @Test
+        void updateClient_optimisticGivenConflictOnce_retriesAndSucceeds() {
+            /* Arrage */
+            service = arrangeService("optimistic");
+            // every attempt reloads the row, as a new transaction would
+            when(repository.findById(targetId)).thenAnswer(invocation -> java.util.Optional.of(reloadTarget()));
+            when(repository.saveAndFlush(any(Client.class)))
+                    .thenThrow(new OptimisticLockingFailureException("stale"))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            /* Act & Assert */
+            Client result = service.updateClient(targetId, sourceClient);
+            assertEquals("Scotch", result.getLastName());
+            verify(repository, times(2)).findById(targetId);
+            verify(repository, never()).findByIdWithLocking(anyString());
+        }
+
+        @Test
+        void updateClient_optimisticGivenPersistentConflict_throwsClientVersionConflictException() {
+            /* Arrage */
+            service = arrangeService("optimistic");
+            // every attempt reloads the row, as a new transaction would
+            when(repository.findById(targetId)).thenAnswer(invocation -> java.util.Optional.of(reloadTarget()));
+            when(repository.saveAndFlush(any(Client.class)))
+                    .thenThrow(new OptimisticLockingFailureException("stale"));
+
+            /* Act & Assert */
+            assertThrows(ClientVersionConflictException.class,
+                    () -> service.updateClient(targetId, sourceClient));
+            verify(repository, times(3)).findById(targetId); // first attempt plus two retries
+        }
+
+        @Test
+        void updateClient_optimisticGivenConflictWithIfMatch_throwsWithoutRetry() {
+            /* Arrage */
+            service = arrangeService("optimistic");
+            targetClient.setVersion(3L);
+            when(repository.findById(targetId)).thenReturn(java.util.Optional.of(targetClient));
+            when(repository.saveAndFlush(any(Client.class)))
+                    .thenThrow(new OptimisticLockingFailureException("stale"));
+
+            /* Act & Assert */
+            assertThrows(ClientPreconditionFailedException.class,
+                    () -> service.updateClient(targetId, sourceClient, Set.of(3L)));
+            verify(repository, times(1)).findById(targetId);
+        }
+    }
+
+    @Nested
+    class PatchClientsTests {
+
+        /* Arrange */
+        IllegalArgumentException ex;
+
+        @BeforeEach
+        void arrangeException() {
+            ex = null;
+        }
+
+        @Test
+        void patchClients_givenNoFields_throwIllegalArgumentException() {
+            /* Act & Assert */
+            ex = assertThrows(IllegalArgumentException.class,
+                    () -> service.patchClients(new ClientBulkPatch(List.of("a"), null, Map.of())));
+            assertEquals("patch must set at least one field", ex.getMessage());
+        }
+
+        @Test
+        void patchClients_givenServerManagedField_throwIllegalArgumentException() {
+            /* Act & Assert */
+            ex = assertThrows(IllegalArgumentException.class, () -> service.patchClients(
+                    new ClientBulkPatch(List.of("a"), null, Map.of("version", 5))));
+            assertEquals("field cannot be set: version", ex.getMessage());
+        }
+
+        @Test
+        void patchClients_givenWrongValueType_throwIllegalArgumentException() {
+            /* Act & Assert */
+            ex = assertThrows(IllegalArgumentException.class, () -> service.patchClients(
+                    new ClientBulkPatch(List.of("a"), null, Map.of("validated", "yes"))));
+            assertEquals("field validated expects a boolean", ex.getMessage());
+        }
+
+        @Test
+        void patchClients_givenIdsAndFilter_throwIllegalArgumentException() {
+            /* Act & Assert */
+            ex = assertThrows(IllegalArgumentException.class, () -> service.patchClients(
+                    new ClientBulkPatch(List.of("a"), new ClientSearchCriteria(), Map.of("city", "Zurich"))));
+            assertEquals("patch must target either ids or a filter", ex.getMessage());
+        }
+
+        @Test
+        void patchClients_givenEmptyFilter_throwIllegalArgumentException() {
+            /* Act & Assert */
+            ex = assertThrows(IllegalArgumentException.class, () -> service.patchClients(
+                    new ClientBulkPatch(null, new ClientSearchCriteria(), Map.of("city", "Zurich"))));
+            assertEquals("filter must name at least one field", ex.getMessage());
+        }
+
+        @Test
+        void patchClients_givenIds_updatesInChunksAndEvictsEachId() {
+            /* Arrange */
+            when(repository.lockVersions(any(), eq(2))).thenReturn(versions("a", 0L, "b", 4L));
+            when(repository.lockVersions(any(), eq(1))).thenReturn(versions("c", 1L));
+
+            /* Act */
+            ClientBulkPatchResult result = service.patchClients(new ClientBulkPatch(
+                    List.of("a", "b", "a", "c"), null, Map.of("dateOfBirth", "1990-02-03")));
+
+            /* Assert */
+            Map<String, Object> values = Map.of("dateOfBirth", LocalDate.of(1990, 2, 3));
+            assertEquals(3, result.getUpdated());
+            assertEquals(2, result.getChunks());
+            verify(repository).updateFields(versions("a", 0L, "b", 4L).keySet(), values);
+            verify(repository).updateFields(versions("c", 1L).keySet(), values);
+            verify(outbox).patched(versions("a", 0L, "b", 4L), values);
+            verify(outbox).patched(versions("c", 1L), values);
+            verify(cache).evict("a");
+            verify(cache).evict("b");
+            verify(cache).evict("c");
+        }
+
+        @Test
+        void patchClients_givenFilter_walksMatchingIdsChunkByChunk() {
+            /* Arrange */
+            ClientSearchCriteria filter = new ClientSearchCriteria();
+            filter.setValidated(false);
+            when(repository.lockVersions(any(), eq(2)))
+                    .thenReturn(versions("a", 0L, "b", 0L), versions("c", 2L));
+
+            /* Act */
+            ClientBulkPatchResult result = service.patchClients(
+                    new ClientBulkPatch(null, filter, Map.of("validated", true)));
+
+            /* Assert */
+            assertEquals(3, result.getUpdated());
+            assertEquals(2, result.getChunks());
+            verify(repository, times(2)).lockVersions(any(), eq(2));
+            verify(repository, times(2)).updateFields(anyCollection(), anyMap());
+        }
+
+        @Test
+        void patchClients_givenNoMatches_writesNothing() {
+            /* Arrange */
+            ClientSearchCriteria filter = new ClientSearchCriteria();
+            filter.setCity("Nowhere");
+            when(repository.lockVersions(any(), eq(2))).thenReturn(Map.of());
+
+            /* Act */
+            ClientBulkPatchResult result = service.patchClients(
+                    new ClientBulkPatch(null, filter, Map.of("validated", true)));
+
+            /* Assert */
+            assertEquals(0, result.getUpdated());
+            assertEquals(0, result.getChunks());
+            verify(repository, never()).updateFields(anyCollection(), anyMap());
+            verifyNoInteractions(outbox);
+        }
+
+        private Map<String, Long> versions(Object... idsAndVersions) {
+            Map<String, Long> versions = new LinkedHashMap<>();
+            for (int i = 0; i < idsAndVersions.length; i += 2) {
+                versions.put((String) idsAndVersions[i], (Long) idsAndVersions[i + 1]);
+            }
+            return versions;
+        }
+    }
+
+    @Nested
+    class GetClientsTests {
+
+        @Test
+        void getClients_givenEmptyOrTooManyIds_throwsIllegalArgumentException() {
+            /* Act & Assert */
+            assertThrows(IllegalArgumentException.class, () -> service.getClients(List.of()));
+            assertThrows(IllegalArgumentException.class, () -> service.getClients(null));
+            assertThrows(IllegalArgumentException.class, () -> service.getClients(List.of("a", "b", "c", "d")));
+            assertThrows(IllegalArgumentException.class, () -> service.getClients(List.of("a", " ")));
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void getClients_givenCachedAndMissingIds_loadsTheRestInOneQuery() {
+            /* Arrange */
+            Client cached = arrangeGoodSource();
+            cached.setId("cached-id");
+            Client stored = arrangeGoodSource();
+            stored.setId("stored-id");
+            when(cache.get(anyString())).thenAnswer(invocation ->
+                    "cached-id".equals(invocation.getArgument(0)) ? cached : null);
+            when(repository.findAllById(List.of("missing-id", "stored-id"))).thenReturn(List.of(stored));
+
+            /* Act */
+            ClientLookup lookup = service.getClients(
+                    List.of("missing-id", "cached-id", "stored-id", "cached-id"));
+
+            /* Assert */
+            assertEquals(List.of("cached-id", "stored-id"), List.copyOf(lookup.getClients().keySet()));
+            assertSame(cached, lookup.getClients().get("cached-id"));
+            assertSame(stored, lookup.getClients().get("stored-id"));
+            assertEquals(List.of("missing-id"), lookup.getMissing());
+            verify(repository, times(1)).findAllById(any());
+            verify(cache).put(stored, 0L);
+        }
+    }
+
+    @Nested
+    class WriteBehindTests {
+
+        /* Arrange */
+        Client storedClient;
+        String targetId;
+
+        @BeforeEach
+        void arrangeRepo() {
+            storedClient = arrangeGoodSource();
+            storedClient.setId("target-id-123");
+            storedClient.setVersion(4L);
+            targetId = storedClient.getId();
+        }
+
+        private Client arrangeQueued(String firstName, String lastName) {
+            Client queued = new Client();
+            queued.setFirstName(firstName);
+            queued.setLastName(lastName);
+            return queued;
+        }
+
+        private Client arrangeStored(String id) {
+            Client stored = arrangeGoodSource();
+            stored.setId(id);
+            return stored;
+        }
+
+        @Test
+        void queueUpdate_givenWriteBehindDisabled_throwsIllegalStateException() {
+            /* Act & Assert */
+            assertThrows(IllegalStateException.class,
+                    () -> service.queueUpdate(targetId, arrangeUpdateSource()));
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void queueUpdate_givenExistingClient_returnsStoredClientWithQueuedFields() {
+            /* Arrange */
+            Client source = arrangeQueued(null, "Scotch");
+            when(updateLog.isEnabled()).thenReturn(true);
+            when(repository.findById(targetId)).thenReturn(Optional.of(storedClient));
+            when(updateLog.append(targetId, source)).thenReturn(arrangeQueued("Hopper", "Scotch"));
+
+            /* Act */
+            Client result = service.queueUpdate(targetId, source);
+
+            /* Assert */
+            assertEquals("Hopper", result.getFirstName());
+            assertEquals("Scotch", result.getLastName());
+            assertEquals(4L, result.getVersion());
+            // the stored, possibly cached, instance is left alone
+            assertEquals("Pod", storedClient.getLastName());
+            verify(repository, never()).saveAndFlush(any());
+        }
+
+        @Test
+        void queueUpdate_givenMissingClient_throwsWithoutQueueing() {
+            /* Arrange */
+            when(updateLog.isEnabled()).thenReturn(true);
+            when(repository.findById(targetId)).thenReturn(Optional.empty());
+
+            /* Act & Assert */
+            assertThrows(ClientNotFoundException.class,
+                    () -> service.queueUpdate(targetId, arrangeUpdateSource()));
+            verify(updateLog, never()).append(any(), any());
+        }
+
+        @Test
+        void getClient_givenQueuedUpdate_showsItOnTopOfTheStoredClient() {
+            /* Arrange */
+            when(cache.get(targetId)).thenReturn(storedClient);
+            when(updateLog.queued(targetId)).thenReturn(arrangeQueued("Hopper", null));
+
+            /* Act */
+            Client result = service.getClient(targetId);
+
+            /* Assert */
+            assertEquals("Hopper", result.getFirstName());
+            assertEquals("Pod", result.getLastName());
+            assertEquals("Hop", storedClient.getFirstName());
+        }
+
+        @Test
+        void entityTag_givenQueuedUpdate_differsFromTheStoredVersion() {
+            /* Arrange */
+            Client shown = arrangeStored(targetId);
+            shown.setVersion(4L);
+            shown.setFirstName("Hopper");
+
+            /* Act */
+            String stored = service.entityTag(storedClient);
+            when(updateLog.queued(targetId)).thenReturn(arrangeQueued("Hopper", null));
+            String overlaid = service.entityTag(shown);
+
+            /* Assert */
+            assertEquals("4", stored);
+            assertTrue(overlaid.startsWith("4-"), overlaid);
+            assertNull(service.cachedEntityTag(targetId));
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void cachedEntityTag_givenCachedClient_answersWithoutLoadingIt() {
+            /* Arrange */
+            when(cache.get(anyString())).thenAnswer(invocation ->
+                    targetId.equals(invocation.getArgument(0)) ? storedClient : null);
+
+            /* Act & Assert */
+            assertEquals("4", service.cachedEntityTag(targetId));
+            assertNull(service.cachedEntityTag("not-cached"));
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void updateClient_givenQueuedUpdate_appliesItUnderneathAndDropsIt() {
+            /* Arrange */
+            Client queued = arrangeQueued("Hopper", "Old");
+            when(updateLog.queued(targetId)).thenReturn(queued);
+            when(repository.findByIdWithLocking(targetId)).thenReturn(Optional.of(storedClient));
+            when(repository.saveAndFlush(any(Client.class)))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            /* Act */
+            Client result = service.updateClient(targetId, arrangeQueued(null, "Scotch"));
+
+            /* Assert */
+            assertEquals("Hopper", result.getFirstName());
+            assertEquals("Scotch", result.getLastName());
+            verify(updateLog).applied(targetId, queued);
+        }
+
+        @Test
+        void flushQueuedUpdates_givenFailingBatch_retriesClientsOneByOne() {
+            /* Arrange */
+            ClientUpdateLog.Queued first = new ClientUpdateLog.Queued("c1", arrangeQueued("Hopper", null));
+            ClientUpdateLog.Queued second = new ClientUpdateLog.Queued("c2", arrangeQueued("Skipper", null));
+            when(updateLog.beginFlush()).thenReturn(List.of(first, second));
+            when(updateLog.isQueued(any())).thenReturn(true);
+            when(repository.findAllById(anyList())).thenAnswer(invocation -> {
+                List<String> ids = invocation.getArgument(0);
+                return ids.stream().map(WriteBehindTests.this::arrangeStored).toList();
+            });
+            when(repository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+                List<Client> saved = invocation.getArgument(0);
+                if (saved.stream().anyMatch(client -> client.getId().equals("c2"))) {
+                    throw new OptimisticLockingFailureException("conflict");
+                }
+                return saved;
+            });
+
+            /* Act */
+            service.flushQueuedUpdates();
+
+            /* Assert */
+            verify(repository, times(3)).saveAllAndFlush(anyList());
+            verify(updateLog).endFlush(List.of(first), List.of(second));
+            verify(outbox, times(1)).updated(any());
+            verify(cache).evict("c1");
+        }
+
+        @Test
+        void flushQueuedUpdates_givenDeletedClient_dropsItsUpdate() {
+            /* Arrange */
+            ClientUpdateLog.Queued gone = new ClientUpdateLog.Queued("c1", arrangeQueued("Hopper", null));
+            when(updateLog.beginFlush()).thenReturn(List.of(gone));
+            when(updateLog.isQueued(gone)).thenReturn(true);
+            when(repository.findAllById(List.of("c1"))).thenReturn(List.of());
+
+            /* Act */
+            service.flushQueuedUpdates();
+
+            /* Assert */
+            verify(repository, never()).saveAllAndFlush(anyList());
+            verify(updateLog).endFlush(List.of(gone), List.of());
+        }
+
+        @Test
+        void flushQueuedUpdates_givenUpdateNoLongerQueued_leavesItOut() {
+            /* Arrange */
+            ClientUpdateLog.Queued folded = new ClientUpdateLog.Queued("c1", arrangeQueued("Hopper", null));
+            when(updateLog.beginFlush()).thenReturn(List.of(folded));
+            when(updateLog.isQueued(folded)).thenReturn(false);
+
+            /* Act */
+            service.flushQueuedUpdates();
+
+            /* Assert */
+            verify(repository, never()).findAllById(anyList());
+            verify(updateLog).endFlush(List.of(folded), List.of());
         }
     }
 
@@ -284,7 +961,6 @@ public class ClientServiceImplTest {
         void getClient_givenExisitingTargetId_returnsClient() {
 
             /* Arrage */
-            when(repository.existsById(targetId)).thenReturn(true);
             when(repository.findById(targetId)).thenReturn(java.util.Optional.of(targetClient));
 
             /* Act & Assert */
@@ -296,6 +972,69 @@ public class ClientServiceImplTest {
             assertEquals("Pod", result.getLastName());
             assertEquals("Non-Binary", result.getGender());
             assertEquals("317109", result.getPostalCode());
+            verify(cache).put(targetClient, 0L);
+        }
+
+        @Test
+        void getClient_givenCachedTargetId_returnsWithoutRepository() {
+            /* Arrage */
+            when(cache.get(targetId)).thenReturn(targetClient);
+
+            /* Act & Assert */
+            Client result = service.getClient(targetId);
+            assertSame(targetClient, result);
+            verify(repository, never()).findById(anyString());
+        }
+    }
+
+    @Nested
+    class SearchClientsTests {
+
+        private List<Client> arrangeRows(int count) {
+            List<Client> rows = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Client client = arrangeGoodSource();
+                client.setId("id-" + i);
+                rows.add(client);
+            }
+            return rows;
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void searchClients_givenMoreRowsThanLimit_returnsNextCursor() {
+            /* Arrange */
+            when(repository.findBy(any(Specification.class), any()))
+                    .thenReturn(arrangeRows(3));
+
+            /* Act */
+            ClientPage page = service.searchClients(new ClientSearchCriteria(), null, 2);
+
+            /* Assert */
+            assertEquals(2, page.getItems().size());
+            assertEquals("id-1", page.getNextCursor());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void searchClients_givenLastPage_returnsNoCursor() {
+            /* Arrange */
+            when(repository.findBy(any(Specification.class), any()))
+                    .thenReturn(arrangeRows(1));
+
+            /* Act */
+            ClientPage page = service.searchClients(null, "id-0", null);
+
+            /* Assert */
+            assertEquals(1, page.getItems().size());
+            assertNull(page.getNextCursor());
+        }
+
+        @Test
+        void searchClients_givenNonPositiveLimit_throwsIllegalArgumentException() {
+            /* Act & Assert */
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.searchClients(new ClientSearchCriteria(), null, 0));
         }
     }
 
@@ -344,10 +1083,11 @@ public class ClientServiceImplTest {
         @Test
         void deleteClient_givenTargetId_returnTrue() {
             /* Arrage */
-            when(repository.existsById(targetId)).thenReturn(true);
+            when(repository.deleteClientById(targetId)).thenReturn(1);
 
             /* Act & Assert */
             assertTrue(service.deleteClient(targetId));
+            verify(cache).evict(targetId);
         }
     }
 }
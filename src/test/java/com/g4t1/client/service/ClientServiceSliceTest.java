@@ -0,0 +1,54 @@
+package com.g4t1.client.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.data.RepositoryMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import com.g4t1.client.config.CacheConfig;
+import com.g4t1.client.repository.ClientBatchRepository;
+import com.g4t1.client.repository.ClientIdCodec;
+import com.g4t1.client.service.impl.ClientCache;
+import com.g4t1.client.service.impl.ClientDatabaseHealthIndicator;
+import com.g4t1.client.service.impl.ClientMatchIndex;
+import com.g4t1.client.service.impl.ClientMetrics;
+import com.g4t1.client.service.impl.ClientOutbox;
+import com.g4t1.client.service.impl.ClientReadRouting;
+import com.g4t1.client.service.impl.ClientSearchIndex;
+import com.g4t1.client.service.impl.ClientServiceImpl;
+import com.g4t1.client.service.impl.ClientUpdateLog;
+import com.g4t1.client.service.impl.TimeOrderedClientIdGenerator;
+
+// the service and everything it is built from against an embedded database, for tests that go
+// through real transactions. a new collaborator of ClientServiceImpl is added here once. tests
+// @Import what they need on top, and commit as they go rather than rolling back
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@ImportAutoConfiguration({ ValidationAutoConfiguration.class, JacksonAutoConfiguration.class,
+        MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+        RepositoryMetricsAutoConfiguration.class, TaskExecutionAutoConfiguration.class })
+@Import({ CacheConfig.class, ClientServiceImpl.class, ClientBatchRepository.class,
+        ClientCache.class, ClientIdCodec.class, TimeOrderedClientIdGenerator.class,
+        ClientMetrics.class, ClientOutbox.class, ClientReadRouting.class,
+        ClientDatabaseHealthIndicator.class, ClientMatchIndex.class, ClientSearchIndex.class,
+        ClientUpdateLog.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public @interface ClientServiceSliceTest {
+
+    @AliasFor(annotation = DataJpaTest.class, attribute = "properties")
+    String[] properties() default {};
+}
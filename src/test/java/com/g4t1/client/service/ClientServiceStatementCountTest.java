@@ -0,0 +1,281 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.g4t1.client.dto.ClientBulkPatch;
+import com.g4t1.client.dto.ClientBulkPatchResult;
+import com.g4t1.client.dto.ClientLookup;
+import com.g4t1.client.dto.ClientPage;
+import com.g4t1.client.dto.ClientSearchCriteria;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.exceptions.ClientNotFoundException;
+import com.g4t1.client.repository.ClientRepository;
+
+// runs the service against an embedded database and counts the sql it sends
+@ClientServiceSliceTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.g4t1.client.service.ClientServiceStatementCountTest$SqlRecorder")
+public class ClientServiceStatementCountTest {
+
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase());
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String targetId;
+
+    @BeforeEach
+    void arrangeClient() {
+        Client client = service.createClient(ClientFixtures.newClient());
+        targetId = client.getId();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void getClient_issuesSingleSelect() {
+        service.getClient(targetId);
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("select"));
+    }
+
+    @Test
+    void getClients_issuesSingleInSelect() {
+        List<String> ids = new ArrayList<>(List.of(targetId));
+        for (int i = 0; i < 3; i++) {
+            ids.add(service.createClient(ClientFixtures.newClient()).getId());
+        }
+        SqlRecorder.STATEMENTS.clear();
+
+        ClientLookup lookup = service.getClients(
+                List.of(ids.get(0), ids.get(1), "missing-id", ids.get(2), ids.get(3)));
+
+        assertEquals(ids, List.copyOf(lookup.getClients().keySet()));
+        assertEquals(List.of("missing-id"), lookup.getMissing());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).contains(" in "));
+    }
+
+    @Test
+    void updateClient_issuesSingleSelectThenVersionCheckedUpdate() {
+        Client source = new Client();
+        source.setCity("Zurich");
+
+        Client updated = service.updateClient(targetId, source);
+
+        assertEquals(2, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("select"));
+        assertFalse(SqlRecorder.STATEMENTS.get(0).contains("for update"));
+        assertTrue(SqlRecorder.STATEMENTS.get(1).startsWith("update"));
+        assertTrue(SqlRecorder.STATEMENTS.get(1).contains("version=?"));
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void updateClient_writesOnlyChangedColumns() {
+        Client source = new Client();
+        source.setPhoneNumber("9123 4567");
+
+        service.updateClient(targetId, source);
+
+        String update = SqlRecorder.STATEMENTS.get(1);
+        assertTrue(update.contains("phone_number"), update);
+        assertFalse(update.contains("first_name"), update);
+        assertFalse(update.contains("address"), update);
+    }
+
+    @Test
+    void updateClient_withStoredValues_issuesNoUpdate() {
+        Client source = new Client();
+        source.setCity("Singapore");
+
+        Client result = service.updateClient(targetId, source);
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertEquals(0L, result.getVersion());
+        assertEquals(1, meterRegistry.get("client.update.noop").counter().count());
+    }
+
+    @Test
+    void updateClient_timesMergeAndRepositoryCallsSeparately() {
+        Client source = new Client();
+        source.setCity("Zurich");
+
+        service.updateClient(targetId, source);
+
+        assertEquals(1, meterRegistry.get("client.update.merge").timer().count());
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "ClientRepository").tag("method", "findById").timer().count() >= 1);
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tag("method", "saveAndFlush").timer().count() >= 1);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "client.update.locking=pessimistic")
+    class PessimisticLockingTests {
+
+        // nested classes get their own context, the outer fields belong to the optimistic one
+        @Autowired
+        private ClientService pessimisticService;
+
+        @Autowired
+        private ClientRepository pessimisticRepository;
+
+        private String lockedId;
+
+        @BeforeEach
+        void arrangeLockedClient() {
+            lockedId = pessimisticService.createClient(ClientFixtures.newClient()).getId();
+            SqlRecorder.STATEMENTS.clear();
+        }
+
+        @AfterEach
+        void cleanUpLockedClient() {
+            pessimisticRepository.deleteAll();
+        }
+
+        @Test
+        void updateClient_issuesSingleLockingSelectThenUpdate() {
+            Client source = new Client();
+            source.setCity("Zurich");
+
+            pessimisticService.updateClient(lockedId, source);
+
+            assertEquals(2, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+            assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("select"));
+            assertTrue(SqlRecorder.STATEMENTS.get(0).contains("for update"), SqlRecorder.STATEMENTS::toString);
+            assertTrue(SqlRecorder.STATEMENTS.get(1).startsWith("update"));
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "client.id.storage=BINARY")
+    class BinaryIdStorageTests {
+
+        @Autowired
+        private ClientService binaryService;
+
+        @Autowired
+        private ClientRepository binaryRepository;
+
+        @AfterEach
+        void cleanUpBinaryClients() {
+            binaryRepository.deleteAll();
+        }
+
+        @Test
+        void binaryIds_roundTripThroughJpaAndBatchInsertInCreationOrder() {
+            Client hip = ClientFixtures.newClient();
+            hip.setFirstName("Hip");
+            List<Client> batch = List.of(ClientFixtures.newClient(), hip);
+            List<String> ids = binaryService.createClients(batch).stream()
+                    .map(result -> result.getId()).toList();
+
+            assertEquals("Hip", binaryService.getClient(ids.get(1)).getFirstName());
+            ClientPage page = binaryService.searchClients(new ClientSearchCriteria(), null, 10);
+            // binary keys sort by their bytes, which for time-ordered ids is creation order
+            List<String> listed = page.getItems().stream().map(Client::getId).toList();
+            assertEquals(ids, listed.subList(listed.size() - 2, listed.size()));
+        }
+    }
+
+    @Test
+    void createClient_issuesSingleInsert() {
+        service.createClient(ClientFixtures.newClient());
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("insert"));
+    }
+
+    @Test
+    void deleteClient_issuesSingleDelete() {
+        service.deleteClient(targetId);
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("delete"));
+    }
+
+    @Test
+    void searchClients_issuesSingleKeysetSelectPerPage() {
+        for (int i = 0; i < 4; i++) {
+            service.createClient(ClientFixtures.newClient("Zurich"));
+        }
+        ClientSearchCriteria criteria = new ClientSearchCriteria();
+        criteria.setCity("Zurich");
+        SqlRecorder.STATEMENTS.clear();
+
+        ClientPage first = service.searchClients(criteria, null, 3);
+        ClientPage second = service.searchClients(criteria, first.getNextCursor(), 3);
+
+        assertEquals(3, first.getItems().size());
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+        assertTrue(first.getItems().get(2).getId().compareTo(second.getItems().get(0).getId()) < 0);
+        // no count query and no offset, each page is a single bounded select
+        assertEquals(2, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertFalse(SqlRecorder.STATEMENTS.get(1).contains("offset"));
+    }
+
+    @Test
+    void patchClients_byFilter_issuesOneLockingSelectAndOneUpdatePerChunk() {
+        // cache the target so the patch has something to invalidate
+        service.getClient(targetId);
+        ClientSearchCriteria filter = new ClientSearchCriteria();
+        filter.setValidated(false);
+        SqlRecorder.STATEMENTS.clear();
+
+        ClientBulkPatchResult result = service.patchClients(
+                new ClientBulkPatch(null, filter, Map.of("validated", true, "city", "Zurich")));
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(0).startsWith("select"));
+        assertTrue(SqlRecorder.STATEMENTS.get(0).contains("for update"), SqlRecorder.STATEMENTS::toString);
+        assertTrue(SqlRecorder.STATEMENTS.get(1).startsWith("update"));
+        assertTrue(SqlRecorder.STATEMENTS.get(1).contains("version"));
+
+        Client patched = service.getClient(targetId);
+        assertTrue(patched.getValidated());
+        assertEquals("Zurich", patched.getCity());
+        assertEquals(1L, patched.getVersion());
+    }
+
+    @Test
+    void missingClient_issuesSingleStatementAndThrowsClientNotFoundException() {
+        assertThrows(ClientNotFoundException.class, () -> service.getClient("missing-id"));
+        assertThrows(ClientNotFoundException.class,
+                () -> service.updateClient("missing-id", new Client()));
+        assertThrows(ClientNotFoundException.class, () -> service.deleteClient("missing-id"));
+
+        assertEquals(3, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS::toString);
+    }
+}
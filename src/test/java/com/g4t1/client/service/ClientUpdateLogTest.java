@@ -0,0 +1,184 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.service.impl.ClientUpdateLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ClientUpdateLogTest {
+
+    @TempDir
+    Path dir;
+
+    private ClientUpdateLog open(boolean enabled) throws IOException {
+        return open(enabled, new SimpleMeterRegistry());
+    }
+
+    private ClientUpdateLog open(boolean enabled, SimpleMeterRegistry registry) throws IOException {
+        return new ClientUpdateLog(dir.toString(), enabled, JsonMapper.builder().findAndAddModules().build(),
+                registry);
+    }
+
+    private static Client arrangeUpdate(String lastName, String city) {
+        Client update = new Client();
+        update.setLastName(lastName);
+        update.setCity(city);
+        return update;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void append_givenSeveralUpdatesOfOneClient_coalescesThem() throws IOException {
+        /* Arrange */
+        ClientUpdateLog log = open(true);
+
+        /* Act */
+        log.append("c1", arrangeUpdate("Scotch", "Zurich"));
+        Client queued = log.append("c1", arrangeUpdate("Pod", null));
+
+        /* Assert */
+        assertEquals("Pod", queued.getLastName());
+        assertEquals("Zurich", queued.getCity());
+        assertSame(queued, log.queued("c1"));
+        assertEquals(1, log.beginFlush().size());
+    }
+
+    @Test
+    void append_givenDisabled_throwsIllegalStateException() throws IOException {
+        /* Arrange */
+        ClientUpdateLog log = open(false);
+
+        /* Act & Assert */
+        assertThrows(IllegalStateException.class, () -> log.append("c1", arrangeUpdate("Pod", null)));
+        assertFalse(Files.exists(dir.resolve("updates-1.log")));
+    }
+
+    @Test
+    void open_givenUnflushedSegments_replaysThemEvenWhenDisabled() throws IOException {
+        /* Arrange */
+        ClientUpdateLog log = open(true);
+        log.append("c1", arrangeUpdate("Scotch", "Zurich"));
+        log.append("c2", arrangeUpdate("Tan", null));
+        log.append("c1", arrangeUpdate("Pod", null));
+        log.discard("c2");
+        // a crash mid-write leaves a torn line that was never acknowledged
+        Files.writeString(dir.resolve("updates-1.log"), "{\"id\":\"c3\",\"fie", StandardOpenOption.APPEND);
+
+        /* Act */
+        ClientUpdateLog replayed = open(false);
+
+        /* Assert */
+        assertEquals("Pod", replayed.queued("c1").getLastName());
+        assertEquals("Zurich", replayed.queued("c1").getCity());
+        assertNull(replayed.queued("c2"));
+        assertNull(replayed.queued("c3"));
+    }
+
+    @Test
+    void endFlush_givenEverythingFlushed_deletesTheLog() throws IOException {
+        /* Arrange */
+        ClientUpdateLog log = open(true);
+        log.append("c1", arrangeUpdate("Scotch", null));
+        List<ClientUpdateLog.Queued> flushing = log.beginFlush();
+
+        /* Act */
+        log.endFlush(flushing, List.of());
+
+        /* Assert */
+        assertNull(log.queued("c1"));
+        assertEquals(List.of(), segments());
+    }
+
+    @Test
+    void endFlush_givenFailedAndNewerUpdates_keepsThemAcrossARestart() throws IOException {
+        /* Arrange */
+        ClientUpdateLog log = open(true);
+        log.append("c1", arrangeUpdate("Scotch", null));
+        log.append("c2", arrangeUpdate("Tan", null));
+        log.append("c3", arrangeUpdate("Lim", null));
+        List<ClientUpdateLog.Queued> flushing = log.beginFlush();
+        ClientUpdateLog.Queued c1 = flushing.stream().filter(entry -> entry.id().equals("c1")).findFirst().get();
+        ClientUpdateLog.Queued c2 = flushing.stream().filter(entry -> entry.id().equals("c2")).findFirst().get();
+        ClientUpdateLog.Queued c3 = flushing.stream().filter(entry -> entry.id().equals("c3")).findFirst().get();
+        // queued while the flush ran, c3 has to stay with both its updates
+        log.append("c3", arrangeUpdate(null, "Bedok"));
+
+        /* Act */
+        log.endFlush(List.of(c1, c3), List.of(c2));
+        ClientUpdateLog replayed = open(false);
+
+        /* Assert */
+        assertNull(replayed.queued("c1"));
+        assertEquals("Tan", replayed.queued("c2").getLastName());
+        assertEquals("Bedok", replayed.queued("c3").getCity());
+        assertEquals("Lim", log.queued("c3").getLastName());
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void applied_givenNewerAppend_keepsTheQueuedUpdate() throws IOException {
+        /* Arrange */
+        ClientUpdateLog log = open(true);
+        Client older = log.append("c1", arrangeUpdate("Scotch", null));
+        log.append("c1", arrangeUpdate(null, "Zurich"));
+
+        /* Act */
+        log.applied("c1", older);
+
+        /* Assert */
+        assertEquals("Zurich", log.queued("c1").getCity());
+    }
+
+    @Test
+    void append_fromConcurrentCallers_sharesSyncsAndKeepsEveryUpdate() throws Exception {
+        /* Arrange */
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClientUpdateLog log = open(true, registry);
+        int callers = 8;
+        int appendsEach = 100;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<?>> done = new ArrayList<>();
+
+        /* Act */
+        for (int caller = 0; caller < callers; caller++) {
+            String prefix = "c" + caller + "-";
+            done.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < appendsEach; i++) {
+                    log.append(prefix + i, arrangeUpdate("Pod", "Zurich"));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> caller : done) {
+            caller.get();
+        }
+        executor.shutdown();
+
+        /* Assert */
+        double syncs = registry.counter("client.update.log.syncs").count();
+        assertTrue(syncs < callers * appendsEach, () -> syncs + " syncs");
+        assertEquals(callers * appendsEach, open(false).beginFlush().size());
+    }
+}
@@ -0,0 +1,106 @@
+package com.g4t1.client.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Import;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.g4t1.client.entity.Client;
+import com.g4t1.client.repository.ClientRepository;
+import com.g4t1.client.service.impl.ClientServiceImpl;
+import com.g4t1.client.service.impl.ClientUpdateLog;
+
+// write-behind against an embedded database, with a synchronous update landing while a flush
+// is under way. the scheduler is not started, the tests run the flush
+@ClientServiceSliceTest
+@Import(ClientWriteBehindFlushTest.PausingUpdateLogConfig.class)
+public class ClientWriteBehindFlushTest {
+
+    // stops a flush right after it has taken the queued updates, until the test lets it go on
+    static class PausingUpdateLog extends ClientUpdateLog {
+        volatile CountDownLatch taken;
+        volatile CountDownLatch proceed;
+
+        PausingUpdateLog(String directory, ObjectMapper objectMapper, MeterRegistry registry) throws IOException {
+            super(directory, true, objectMapper, registry);
+        }
+
+        @Override
+        public List<Queued> beginFlush() {
+            List<Queued> queued = super.beginFlush();
+            if (taken != null) {
+                taken.countDown();
+                try {
+                    proceed.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return queued;
+        }
+    }
+
+    @TestConfiguration
+    static class PausingUpdateLogConfig {
+
+        // stands in for the slice's own update log wherever the service asks for one
+        @Bean
+        @Primary
+        PausingUpdateLog updateLog(ObjectMapper objectMapper, MeterRegistry registry) throws IOException {
+            return new PausingUpdateLog(Files.createTempDirectory("write-behind").toString(), objectMapper, registry);
+        }
+    }
+
+    @Autowired
+    private ClientServiceImpl service;
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private PausingUpdateLog updateLog;
+
+    @AfterEach
+    void cleanUp() {
+        updateLog.taken = null;
+        repository.deleteAll();
+    }
+
+    private static Client cityUpdate(String city) {
+        Client source = new Client();
+        source.setCity(city);
+        return source;
+    }
+
+    @Test
+    void updateClient_duringFlush_isNotOverwrittenByTheOlderQueuedUpdate() throws Exception {
+        /* Arrange */
+        String id = service.createClient(ClientFixtures.newClient()).getId();
+        service.queueUpdate(id, cityUpdate("Bern"));
+        updateLog.taken = new CountDownLatch(1);
+        updateLog.proceed = new CountDownLatch(1);
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(service::flushQueuedUpdates);
+        assertTrue(updateLog.taken.await(10, TimeUnit.SECONDS));
+
+        /* Act */
+        // folds the queued Bern underneath and commits Zurich while the flush still holds Bern
+        service.updateClient(id, cityUpdate("Zurich"));
+        updateLog.proceed.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+
+        /* Assert */
+        assertEquals("Zurich", repository.findById(id).orElseThrow().getCity());
+        assertNull(updateLog.queued(id));
+    }
+}